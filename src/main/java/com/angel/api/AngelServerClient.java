@@ -56,6 +56,26 @@ public class AngelServerClient {
      * @return Une CompletableFuture qui contiendra l'activité détectée
      */
     public CompletableFuture<Activity> getCurrentActivity() {
+        return getCurrentActivityDetails().thenApply(activityDTO -> {
+            if (activityDTO == null) {
+                return Activity.UNKNOWN;
+            }
+            try {
+                return Activity.valueOf(activityDTO.getActivityType());
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Erreur lors du traitement de la réponse de l'API", e);
+                return Activity.UNKNOWN;
+            }
+        });
+    }
+    
+    /**
+     * Récupère l'activité actuelle avec ses détails (confiance, source, informations
+     * supplémentaires) telle que renvoyée par le système de capture.
+     * 
+     * @return Une CompletableFuture qui contiendra l'activité détectée, ou null en cas d'erreur
+     */
+    public CompletableFuture<ActivityDTO> getCurrentActivityDetails() {
         // Utiliser les noms de propriétés exacts définis dans application.properties
         String baseUrl = configManager.getString("api.angel-server-url", "http://localhost:8080/api");
         String apiUrl = baseUrl + "/activity/current";
@@ -75,24 +95,23 @@ public class AngelServerClient {
                     .thenApply(response -> {
                         if (response.statusCode() != 200) {
                             LOGGER.log(Level.WARNING, "Erreur lors de la récupération de l'activité: {0}", response.statusCode());
-                            return Activity.UNKNOWN;
+                            return (ActivityDTO) null;
                         }
                         
                         try {
-                            ActivityDTO activityDTO = objectMapper.readValue(response.body(), ActivityDTO.class);
-                            return Activity.valueOf(activityDTO.getActivityType());
+                            return objectMapper.readValue(response.body(), ActivityDTO.class);
                         } catch (Exception e) {
                             LOGGER.log(Level.SEVERE, "Erreur lors du traitement de la réponse de l'API", e);
-                            return Activity.UNKNOWN;
+                            return null;
                         }
                     })
                     .exceptionally(ex -> {
                         LOGGER.log(Level.SEVERE, "Exception lors de l'appel à l'API", ex);
-                        return Activity.UNKNOWN;
+                        return null;
                     });
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la création de la requête HTTP", e);
-            return CompletableFuture.completedFuture(Activity.UNKNOWN);
+            return CompletableFuture.completedFuture(null);
         }
     }
     
@@ -0,0 +1,83 @@
+package com.angel.api;
+
+import com.angel.core.AngelApplication;
+import com.angel.persistence.transfer.TransferDataset;
+import com.angel.persistence.transfer.TransferFormat;
+import com.angel.util.LogUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Contrôleur REST pour l'export et l'import en flux de l'historique
+ * (propositions, préférences, activités) aux formats NDJSON et CSV, et pour
+ * l'état des sauvegardes de la base.
+ */
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = "*")
+public class HistoryTransferController {
+    
+    private static final Logger LOGGER = LogUtil.getLogger(HistoryTransferController.class);
+    
+    @Autowired
+    private AngelApplication angelApplication;
+    
+    /**
+     * Exporte un jeu de données en écrivant chaque ligne directement dans la réponse.
+     */
+    @GetMapping("/export/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(defaultValue = "ndjson") String format,
+                       @RequestParam(required = false) Long userId,
+                       HttpServletResponse response) throws IOException {
+        TransferDataset transferDataset = TransferDataset.fromName(dataset);
+        TransferFormat transferFormat = TransferFormat.fromName(format);
+        
+        response.setContentType(transferFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"" + transferDataset.getName() + "." + transferFormat.getExtension() + "\"");
+        
+        OutputStream out = response.getOutputStream();
+        angelApplication.getHistoryTransferService().export(transferDataset, transferFormat, userId, out);
+        out.flush();
+    }
+    
+    /**
+     * Importe un jeu de données lu en flux depuis le corps de la requête.
+     */
+    @PostMapping("/import/{dataset}")
+    public ResponseEntity<Map<String, Object>> importData(@PathVariable String dataset,
+                                                          @RequestParam(defaultValue = "ndjson") String format,
+                                                          HttpServletRequest request) throws IOException {
+        TransferDataset transferDataset = TransferDataset.fromName(dataset);
+        TransferFormat transferFormat = TransferFormat.fromName(format);
+        
+        long rows = angelApplication.getHistoryTransferService()
+            .importData(transferDataset, transferFormat, request.getInputStream());
+        return ResponseEntity.ok(Map.of("dataset", transferDataset.getName(), "imported", rows));
+    }
+    
+    /**
+     * Retourne l'état des sauvegardes en ligne de la base (date et durée de la dernière).
+     */
+    @GetMapping("/backup")
+    public ResponseEntity<Map<String, Object>> getBackupStatus() {
+        return ResponseEntity.ok(angelApplication.getBackupStatus());
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(IllegalArgumentException e) {
+        LOGGER.log(Level.WARNING, "Requête de transfert invalide : {0}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.angel.api;
+
+import com.angel.core.AngelApplication;
+import com.angel.intelligence.DecisionTrace;
+import com.angel.intelligence.ProposalFeedback;
+import com.angel.model.ProposalDailyCount;
+import com.angel.model.ProposalHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur REST pour les statistiques et le suivi des propositions.
+ */
+@RestController
+@RequestMapping("/api/proposals")
+@CrossOrigin(origins = "*")
+public class ProposalApiController {
+    
+    @Autowired
+    private AngelApplication angelApplication;
+    
+    /**
+     * Retourne les cumuls quotidiens de propositions sur une période
+     * (les 7 derniers jours par défaut).
+     */
+    @GetMapping("/stats/daily")
+    public ResponseEntity<List<ProposalDailyCount>> getDailyStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate toDay = to != null ? to : LocalDate.now();
+        LocalDate fromDay = from != null ? from : toDay.minusDays(6);
+        return ResponseEntity.ok(angelApplication.getProposalDailyCounts(fromDay, toDay));
+    }
+    
+    /**
+     * Enregistre le retour de l'utilisateur (accepted, completed ou dismissed) sur la
+     * dernière proposition présentée.
+     */
+    @PostMapping("/feedback")
+    public ResponseEntity<Map<String, Object>> postFeedback(@RequestParam String outcome) {
+        ProposalFeedback feedback = ProposalFeedback.fromString(outcome);
+        if (feedback == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Retour inconnu : " + outcome));
+        }
+        ProposalHistory history = angelApplication.recordProposalFeedback(feedback);
+        if (history == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of(
+            "proposalType", history.getProposalType(),
+            "outcome", feedback.name().toLowerCase()
+        ));
+    }
+    
+    /**
+     * Retourne le catalogue des types de propositions et leurs métadonnées.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<List<Map<String, Object>>> getCatalog() {
+        return ResponseEntity.ok(angelApplication.getProposalCatalog());
+    }
+    
+    /**
+     * Retourne les latences, dépassements d'échéance et erreurs de l'évaluation
+     * des propositions, par proposition.
+     */
+    @GetMapping("/stats/evaluation")
+    public ResponseEntity<Map<String, Object>> getEvaluationStats() {
+        return ResponseEntity.ok(angelApplication.getProposalEvaluationMetrics());
+    }
+    
+    /**
+     * Retourne les dernières décisions du moteur, avec la durée de chaque étape et
+     * la raison du rejet de chaque candidate.
+     */
+    @GetMapping("/traces")
+    public ResponseEntity<List<Map<String, Object>>> getTraces(@RequestParam(defaultValue = "20") int limit) {
+        List<Map<String, Object>> traces = new ArrayList<>();
+        for (DecisionTrace trace : angelApplication.getProposalDecisionTraces(limit)) {
+            traces.add(toMap(trace));
+        }
+        return ResponseEntity.ok(traces);
+    }
+    
+    private static Map<String, Object> toMap(DecisionTrace trace) {
+        Map<String, String> rejections = new LinkedHashMap<>();
+        trace.rejections().forEach((proposalType, reason) -> rejections.put(proposalType, reason.name()));
+        
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("timestamp", trace.timestamp());
+        map.put("userId", trace.userId());
+        map.put("activity", trace.activity() != null ? trace.activity().name() : null);
+        map.put("outcome", trace.outcome().name());
+        map.put("selected", trace.selected());
+        map.put("totalMicros", trace.totalMicros());
+        map.put("stageMicros", trace.stageMicros());
+        map.put("scores", trace.scores());
+        map.put("rejections", rejections);
+        return map;
+    }
+}
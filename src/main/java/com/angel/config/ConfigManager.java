@@ -10,6 +10,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +31,9 @@ public class ConfigManager {
     private static final Logger LOGGER = Logger.getLogger(ConfigManager.class.getName());
     
     private final Properties mergedConfig = new Properties();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    // Incrémentée à chaque modification, pour invalider les structures dérivées de la configuration
+    private final AtomicLong version = new AtomicLong();
     private String activeProfile = "default";
     
     @Value("${spring.profiles.active:}")
@@ -375,10 +380,13 @@ public class ConfigManager {
     }
     
     /**
-     * Définit une valeur de configuration.
+     * Définit une valeur de configuration. Comme après un rechargement, les actions de
+     * rechargement sont exécutées pour que les structures précompilées en tiennent compte.
      */
     public void setProperty(String key, String value) {
         mergedConfig.setProperty(key, value);
+        notifyReloadListeners();
+        version.incrementAndGet();
     }
     
     /**
@@ -411,6 +419,45 @@ public class ConfigManager {
     public void reload() {
         loadConfigurations();
         LOGGER.log(Level.INFO, "Configurations rechargées");
+        
+        notifyReloadListeners();
+        
+        // La version n'avance qu'une fois les structures dérivées reconstruites : une
+        // décision mémorisée pendant le rechargement porte encore l'ancienne version
+        version.incrementAndGet();
+    }
+    
+    private void notifyReloadListeners() {
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erreur dans un écouteur de rechargement de configuration", e);
+            }
+        }
+    }
+    
+    /**
+     * Obtient la version de la configuration, incrémentée à chaque rechargement
+     * ou modification d'une propriété.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Enregistre une action exécutée après chaque rechargement de la configuration ou
+     * modification d'une propriété, typiquement pour reconstruire une structure précompilée à partir des propriétés.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+    
+    /**
+     * Retire une action de rechargement.
+     */
+    public void removeReloadListener(Runnable listener) {
+        reloadListeners.remove(listener);
     }
     
     /**
@@ -1,14 +1,17 @@
 package com.angel.core;
 
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,19 +20,35 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import com.angel.api.AngelServerClient;
+import com.angel.api.dto.ActivityDTO;
 import com.angel.avatar.AvatarManager;
 import com.angel.avatar.EmotionAnalyzer;
 import com.angel.avatar.TextToSpeechService;
 import com.angel.avatar.WebSocketService;
 import com.angel.config.ConfigManager;
+import com.angel.intelligence.ActivityHistoryBuffer;
+import com.angel.intelligence.DecisionTrace;
 import com.angel.intelligence.ProposalEngine;
-import com.angel.intelligence.proposals.Proposal;
-import com.angel.intelligence.proposals.WeatherProposal;
+import com.angel.intelligence.ProposalEvaluationExecutor;
+import com.angel.intelligence.ProposalFeedback;
+import com.angel.intelligence.ProposalPrefetcher;
+import com.angel.intelligence.ProposalRegistry;
+import com.angel.intelligence.ProposalTrigger;
+import com.angel.intelligence.proposals.PreparedProposal;
 import com.angel.model.Activity;
+import com.angel.model.ActivityChanged;
+import com.angel.model.ProposalDailyCount;
+import com.angel.model.ProposalHistory;
 import com.angel.model.UserProfile;
-import com.angel.persistence.DatabaseManager;
-import com.angel.persistence.dao.ProposalDAO;
-import com.angel.persistence.dao.UserPreferenceDAO;
+import com.angel.persistence.DatabaseBackupService;
+import com.angel.persistence.PersistenceBackend;
+import com.angel.persistence.ProposalRetentionService;
+import com.angel.persistence.WriteBehindQueue;
+import com.angel.persistence.repository.AcceptanceStatsRepository;
+import com.angel.persistence.repository.ActivityRepository;
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.persistence.repository.UserPreferenceRepository;
+import com.angel.persistence.transfer.HistoryTransferService;
 import com.angel.ui.AvatarController;
 import com.angel.util.LogUtil;
 import com.angel.voice.VoiceActivityManager;
@@ -65,15 +84,27 @@ public class AngelApplication {
 
     private AngelServerClient apiClient;
     private ProposalEngine proposalEngine;
+    private ProposalEvaluationExecutor proposalEvaluationExecutor;
+    private ProposalTrigger proposalTrigger;
+    private ProposalPrefetcher proposalPrefetcher;
     private AvatarController avatarController;
     private WakeWordDetector wakeWordDetector;
-    private DatabaseManager databaseManager;
-    private ProposalDAO proposalDAO;
-    private UserPreferenceDAO userPreferenceDAO;
+    private PersistenceBackend persistenceBackend;
+    private ProposalRepository proposalRepository;
+    private UserPreferenceRepository userPreferenceRepository;
+    private ActivityRepository activityRepository;
+    private AcceptanceStatsRepository acceptanceStatsRepository;
+    private WriteBehindQueue<ProposalHistory> proposalWriteBehindQueue;
+    private WriteBehindQueue<ActivityDTO> activityWriteBehindQueue;
+    private ProposalRetentionService proposalRetentionService;
+    private HistoryTransferService historyTransferService;
+    private DatabaseBackupService databaseBackupService;
     private ScheduledExecutorService scheduler;
     
-    private Activity lastActivity = Activity.UNKNOWN;
-    private final Map<LocalDateTime, Activity> activityHistory = new HashMap<>();
+    private volatile Activity lastActivity = Activity.UNKNOWN;
+    private final List<Consumer<ActivityChanged>> activityChangeListeners = new CopyOnWriteArrayList<>();
+    // Écrit par le thread de polling, lu sans verrou par les vérifications et l'API
+    private ActivityHistoryBuffer activityHistory;
     private UserProfile userProfile;
     private boolean isRunning = false;
     
@@ -88,12 +119,71 @@ public class AngelApplication {
     public void initialize() {
         LOGGER.log(Level.INFO, "Initialisation des composants Angel...");
         try {
-            // Initialiser le gestionnaire de base de données
-            this.databaseManager = new DatabaseManager(configManager);
+            // Historique des changements d'activité des dernières 24 heures
+            this.activityHistory = new ActivityHistoryBuffer(
+                configManager.getInt("api.activity-history.capacity", 1024),
+                TimeUnit.HOURS.toMillis(24)
+            );
+            
+            // Initialiser la persistance (H2 ou mémoire selon database.backend)
+            this.persistenceBackend = PersistenceBackend.create(configManager);
+            this.proposalRepository = persistenceBackend.getProposalRepository();
+            this.userPreferenceRepository = persistenceBackend.getUserPreferenceRepository();
+            this.activityRepository = persistenceBackend.getActivityRepository();
+            this.acceptanceStatsRepository = persistenceBackend.getAcceptanceStatsRepository();
+            
+            // Persistance de l'historique des activités, écrit par lots en arrière-plan
+            if (configManager.getBoolean("database.activities.persist", true)) {
+                this.activityWriteBehindQueue = new WriteBehindQueue<>(
+                    "activities",
+                    activityRepository::saveActivities,
+                    configManager.getInt("database.activities.capacity", 1000),
+                    configManager.getInt("database.activities.batch-size", 100),
+                    configManager.getLong("database.activities.flush-interval", 5000L),
+                    configManager.getLong("database.activities.offer-timeout", 50L)
+                );
+            }
+            
+            // Écriture différée de l'historique des propositions (optionnelle)
+            if (configManager.getBoolean("database.write-behind.enabled", false)) {
+                this.proposalWriteBehindQueue = new WriteBehindQueue<>(
+                    "proposals",
+                    proposalRepository::saveProposals,
+                    configManager.getInt("database.write-behind.capacity", 1000),
+                    configManager.getInt("database.write-behind.batch-size", 50),
+                    configManager.getLong("database.write-behind.flush-interval", 1000L),
+                    configManager.getLong("database.write-behind.offer-timeout", 100L)
+                );
+            }
+            
+            // Rétention de l'historique des propositions (purge par tranches)
+            if (configManager.getBoolean("database.retention.enabled", true)) {
+                this.proposalRetentionService = new ProposalRetentionService(
+                    proposalRepository,
+                    configManager.getInt("database.retention.days-to-keep", 90),
+                    configManager.getInt("database.retention.chunk-size", 500),
+                    configManager.getLong("database.retention.pause-between-chunks", 50L)
+                );
+            }
             
-            // Initialiser les DAOs
-            this.proposalDAO = new ProposalDAO(databaseManager);
-            this.userPreferenceDAO = new UserPreferenceDAO(databaseManager);
+            // Sauvegardes en ligne de la base H2 (sans objet pour le backend en mémoire)
+            if (persistenceBackend.getDatabaseManager() != null
+                    && configManager.getBoolean("database.backup.enabled", true)) {
+                this.databaseBackupService = new DatabaseBackupService(
+                    persistenceBackend.getDatabaseManager(),
+                    Paths.get(configManager.getString("database.backup.directory", "./backups")),
+                    configManager.getInt("database.backup.keep", 7),
+                    configManager.getInt("database.backup.max-active-connections", 2),
+                    configManager.getLong("database.backup.defer-delay", 5000L),
+                    configManager.getInt("database.backup.max-deferrals", 60)
+                );
+            }
+            
+            // Export/import en flux de l'historique
+            this.historyTransferService = new HistoryTransferService(
+                proposalRepository, userPreferenceRepository, activityRepository,
+                configManager.getInt("database.transfer.batch-size", 500)
+            );
             
             // Initialiser le client API
             this.apiClient = new AngelServerClient(configManager);
@@ -101,11 +191,31 @@ public class AngelApplication {
             // Charger le profil utilisateur
             this.userProfile = loadUserProfile();
             
-            // Créer toutes les propositions disponibles
-            List<Proposal> availableProposals = createAvailableProposals();
+            // Répercuter dans le profil les préférences modifiées via le stockage
+            userPreferenceRepository.addPreferenceChangeListener((userId, key, value) -> {
+                if (userId.equals(userProfile.getId())) {
+                    if (value == null) {
+                        userProfile.removePreference(key);
+                    } else {
+                        userProfile.setPreference(key, value);
+                    }
+                }
+            });
+            
+            // Découvrir les propositions disponibles ; chacune est créée à sa première évaluation
+            ProposalRegistry proposalRegistry = ProposalRegistry.discover(configManager);
+            
+            // Évaluer les propositions en parallèle, chacune avec son échéance
+            this.proposalEvaluationExecutor = new ProposalEvaluationExecutor(
+                configManager.getInt("proposals.evaluation.threads", 4),
+                configManager.getInt("proposals.evaluation.queue-capacity", 64),
+                configManager.getLong("proposals.evaluation.timeout", 2000L)
+            );
             
             // Initialiser le moteur de propositions
-            this.proposalEngine = new ProposalEngine(configManager, proposalDAO, availableProposals);
+            this.proposalEngine = new ProposalEngine(configManager, proposalRepository, proposalRegistry,
+                                                     proposalWriteBehindQueue, proposalEvaluationExecutor);
+            proposalEngine.getAcceptanceStatistics().load(acceptanceStatsRepository.loadAcceptanceStats());
             
             // Initialiser les services avatar
             TextToSpeechService ttsService = new TextToSpeechService(configManager);
@@ -121,6 +231,15 @@ public class AngelApplication {
             
             // Initialiser le scheduler pour les tâches périodiques
             this.scheduler = Executors.newScheduledThreadPool(2);
+            
+            // Préparer le contenu des propositions probables pendant l'anti-rebond
+            this.proposalPrefetcher = new ProposalPrefetcher(proposalEngine, userId -> userProfile);
+            addActivityChangeListener(proposalPrefetcher);
+            
+            // Chercher une proposition dès qu'une nouvelle activité est détectée
+            this.proposalTrigger = new ProposalTrigger(this::checkForProposals,
+                                                       configManager.getLong("proposals.check.debounce", 2000L));
+            addActivityChangeListener(proposalTrigger);
             LOGGER.log(Level.INFO, "Composants Angel initialisés avec succès");
 
             // Démarrer l'écoute continue
@@ -162,14 +281,38 @@ public class AngelApplication {
             TimeUnit.MILLISECONDS
         );
         
-        // Configurer la vérification périodique pour les propositions
-        scheduler.scheduleAtFixedRate(
-            this::checkForProposals,
+        // Les propositions sont cherchées à chaque changement d'activité ; la vérification
+        // périodique ne sert plus que de filet de sécurité
+        proposalTrigger.start(
             10000, // Attendre un peu avant la première vérification
-            60000, // Vérifier toutes les minutes
+            configManager.getLong("proposals.check.interval", 600000L)
+        );
+        
+        // Enregistrer périodiquement les taux d'acceptation appris
+        long learningPersistInterval = configManager.getLong("proposals.learning.persist-interval", 300000L);
+        scheduler.scheduleWithFixedDelay(
+            this::persistAcceptanceStatistics,
+            learningPersistInterval,
+            learningPersistInterval,
             TimeUnit.MILLISECONDS
         );
         
+        // Planifier la rétention de l'historique des propositions
+        if (proposalRetentionService != null) {
+            proposalRetentionService.start(
+                configManager.getLong("database.retention.initial-delay", 300000L),
+                configManager.getLong("database.retention.interval", 86400000L)
+            );
+        }
+        
+        // Planifier les sauvegardes en ligne de la base
+        if (databaseBackupService != null) {
+            databaseBackupService.start(
+                configManager.getLong("database.backup.initial-delay", 600000L),
+                configManager.getLong("database.backup.interval", 21600000L)
+            );
+        }
+        
         // Démarrer l'écoute du mot-clé
         wakeWordDetector.startListening(unused -> handleWakeWord());
         
@@ -204,36 +347,70 @@ public class AngelApplication {
             wakeWordDetector.shutdown();
         }
         
+        // Arrêter les vérifications, puis interrompre les préchargements et les
+        // évaluations de propositions en cours
+        if (proposalTrigger != null) {
+            proposalTrigger.shutdown();
+        }
+        if (proposalPrefetcher != null) {
+            proposalPrefetcher.shutdown();
+        }
+        if (proposalEvaluationExecutor != null) {
+            proposalEvaluationExecutor.shutdown();
+        }
+        
+        // Arrêter la rétention après la tranche en cours
+        if (proposalRetentionService != null) {
+            proposalRetentionService.shutdown();
+        }
+        
+        // Laisser se terminer une éventuelle sauvegarde en cours
+        if (databaseBackupService != null) {
+            databaseBackupService.shutdown();
+        }
+        
+        // Enregistrer les derniers taux d'acceptation appris
+        if (proposalEngine != null) {
+            persistAcceptanceStatistics();
+        }
+        
+        // Écrire les propositions encore en attente avant de fermer la base
+        if (proposalWriteBehindQueue != null) {
+            proposalWriteBehindQueue.flushAndStop(5000);
+        }
+        if (activityWriteBehindQueue != null) {
+            activityWriteBehindQueue.flushAndStop(5000);
+        }
+        
         // Fermer la connexion à la base de données
-        if (databaseManager != null) {
-            databaseManager.closeConnection();
+        if (persistenceBackend != null) {
+            persistenceBackend.close();
         }
         
         isRunning = false;
         LOGGER.log(Level.INFO, "Application Angel arrêtée");
     }
     
+    /**
+     * Enregistre les taux d'acceptation modifiés depuis le dernier enregistrement.
+     */
+    private void persistAcceptanceStatistics() {
+        try {
+            int saved = proposalEngine.getAcceptanceStatistics().persistTo(acceptanceStatsRepository);
+            LOGGER.log(Level.FINE, "{0} taux d''acceptation enregistrés", saved);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de l'enregistrement des taux d'acceptation", e);
+        }
+    }
+    
     /**
      * Récupère l'activité courante depuis le serveur Angel-capture.
      */
     private void pollCurrentActivity() {
         LOGGER.log(Level.INFO, "Poll current activitiy...");
         try {
-            apiClient.getCurrentActivity()
-                .thenAccept(activity -> {
-                    if (activity != lastActivity) {
-                        LOGGER.log(Level.INFO, "Nouvelle activité détectée: {0}", activity);
-                        lastActivity = activity;
-                        
-                        // Enregistrer l'activité dans l'historique
-                        LocalDateTime now = LocalDateTime.now();
-                        activityHistory.put(now, activity);
-                        
-                        // Limiter la taille de l'historique (garder les 24 dernières heures)
-                        LocalDateTime cutoff = now.minusHours(24);
-                        activityHistory.entrySet().removeIf(entry -> entry.getKey().isBefore(cutoff));
-                    }
-                })
+            apiClient.getCurrentActivityDetails()
+                .thenAccept(this::onActivityObserved)
                 .exceptionally(ex -> {
                     LOGGER.log(Level.FINE, "Serveur Angel-capture non disponible: {0}", ex.getMessage());
                     return null;
@@ -243,20 +420,74 @@ public class AngelApplication {
         }
     }
     
+    /**
+     * Traite une activité observée, qu'elle provienne du polling ou d'une source qui la
+     * pousse. Un changement d'activité est publié aux écouteurs sous forme d'
+     * {@link ActivityChanged}.
+     * 
+     * @param activityDTO L'activité observée, ou null si le serveur Angel-capture n'a pas
+     *                    pu la fournir : l'activité devient alors inconnue, sans être persistée
+     */
+    public void onActivityObserved(ActivityDTO activityDTO) {
+        if (activityDTO == null) {
+            updateActivity(Activity.UNKNOWN);
+            return;
+        }
+        
+        // Persister chaque observation sans bloquer le thread de polling
+        if (activityWriteBehindQueue != null) {
+            activityWriteBehindQueue.enqueue(activityDTO);
+        }
+        
+        updateActivity(activityDTO.getActivity() != null ? activityDTO.getActivity() : Activity.UNKNOWN);
+    }
+    
+    /**
+     * Met à jour l'activité courante et publie un {@link ActivityChanged} si elle change.
+     */
+    private void updateActivity(Activity activity) {
+        Activity previous = lastActivity;
+        if (activity != previous) {
+            LOGGER.log(Level.INFO, "Nouvelle activité détectée: {0}", activity);
+            lastActivity = activity;
+            
+            // Enregistrer l'activité dans l'historique, qui évince lui-même les entrées
+            // de plus de 24 heures
+            long now = System.currentTimeMillis();
+            activityHistory.append(now, activity);
+            
+            ActivityChanged event = new ActivityChanged(userProfile.getId(), previous, activity, now);
+            for (Consumer<ActivityChanged> listener : activityChangeListeners) {
+                listener.accept(event);
+            }
+        }
+    }
+    
+    /**
+     * Enregistre un écouteur des changements d'activité.
+     * 
+     * @param listener Écouteur appelé sur le thread qui a observé le changement
+     */
+    public void addActivityChangeListener(Consumer<ActivityChanged> listener) {
+        activityChangeListeners.add(listener);
+    }
+    
     /**
      * Vérifie s'il faut faire une proposition à l'utilisateur.
      */
     private void checkForProposals() {
-        LOGGER.log(Level.INFO, "Check for proposals, last activity being ='"+lastActivity+"' ...");
-        if (lastActivity == Activity.UNKNOWN || !lastActivity.allowsProposals()) {
+        // Lue une seule fois : l'activité peut changer pendant la vérification
+        Activity activity = lastActivity;
+        LOGGER.log(Level.INFO, "Check for proposals, last activity being ='"+activity+"' ...");
+        if (activity == Activity.UNKNOWN || !activity.allowsProposals()) {
             return; // Ne pas faire de proposition si l'activité n'est pas reconnue ou ne le permet pas
         }
         
         try {
             // Déterminer la meilleure proposition
-            Proposal bestProposal = proposalEngine.determineBestProposal(
-                lastActivity,
-                activityHistory,
+            PreparedProposal bestProposal = proposalEngine.determineBestProposal(
+                activity,
+                activityHistory.snapshot(),
                 userProfile
             );
             
@@ -265,7 +496,7 @@ public class AngelApplication {
                 avatarController.displayProposal(bestProposal)
                     .thenRun(() -> {
                         // Enregistrer la proposition dans l'historique
-                        proposalEngine.recordProposal(bestProposal, lastActivity);
+                        proposalEngine.recordProposal(bestProposal, activity, userProfile);
                     });
             }
         } catch (Exception e) {
@@ -294,8 +525,9 @@ public class AngelApplication {
                 // Ici, on pourrait démarrer une reconnaissance vocale plus complète
                 // pour comprendre la commande de l'utilisateur
                 
-                // Pour cet exemple, on pourrait simplement proposer quelque chose de pertinent
-                checkForProposals();
+                // Pour cet exemple, on pourrait simplement proposer quelque chose de pertinent,
+                // via le déclencheur pour ne jamais chevaucher une autre vérification
+                proposalTrigger.requestNow();
             });
         });
     }
@@ -313,7 +545,7 @@ public class AngelApplication {
         profile.setName("Utilisateur");
         
         // Essayer de charger les préférences si elles existent
-        Map<String, String> preferences = userPreferenceDAO.getUserPreferences(profile.getId());
+        Map<String, String> preferences = userPreferenceRepository.getUserPreferences(profile.getId());
         if (!preferences.isEmpty()) {
             profile.setPreferences(preferences);
         } else {
@@ -328,22 +560,6 @@ public class AngelApplication {
         return profile;
     }
     
-    /**
-     * Crée la liste de toutes les propositions disponibles dans le système.
-     * 
-     * @return Liste de toutes les propositions
-     */
-    private List<Proposal> createAvailableProposals() {
-        List<Proposal> proposals = new ArrayList<>();
-        
-        // Ajouter toutes les propositions disponibles
-        proposals.add(new WeatherProposal(configManager));
-        // Note: Les autres propositions comme NewsProposal, StoryProposal, etc.
-        // peuvent être ajoutées ici une fois implémentées
-        
-        return proposals;
-    }
-
     /**
      * Traite une question vocale de l'utilisateur.
      * Délègue le traitement au processeur spécialisé.
@@ -385,6 +601,117 @@ public class AngelApplication {
     }
 
     public Map<LocalDateTime, Activity> getActivityHistory() {
-        return new HashMap<>(activityHistory); // Copie défensive
+        return activityHistory.snapshot();
+    }
+    
+    /**
+     * Récupère l'historique persistant des activités sur un intervalle de temps.
+     * 
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @param limit Nombre maximal d'activités retournées
+     * @return Liste chronologique des activités observées
+     */
+    public List<ActivityDTO> getStoredActivities(long fromMillis, long toMillis, int limit) {
+        return activityRepository.getActivitiesBetween(fromMillis, toMillis, limit);
+    }
+    
+    /**
+     * Récupère les cumuls quotidiens de propositions de l'utilisateur courant.
+     * 
+     * @param fromDay Premier jour inclus
+     * @param toDay Dernier jour inclus
+     * @return Liste des cumuls quotidiens par jour et par type
+     */
+    public List<ProposalDailyCount> getProposalDailyCounts(LocalDate fromDay, LocalDate toDay) {
+        return proposalRepository.getDailyCounts(userProfile.getId(), fromDay, toDay);
+    }
+    
+    /**
+     * Obtient le service d'export/import de l'historique.
+     * 
+     * @return Le service de transfert
+     */
+    public HistoryTransferService getHistoryTransferService() {
+        return historyTransferService;
+    }
+    
+    /**
+     * Obtient l'état des sauvegardes de la base (date et durée de la dernière sauvegarde).
+     * 
+     * @return Map des métriques de sauvegarde, avec enabled=false si elles sont désactivées
+     */
+    public Map<String, Object> getBackupStatus() {
+        if (databaseBackupService == null) {
+            return Map.of("enabled", false);
+        }
+        Map<String, Object> status = new HashMap<>(databaseBackupService.getMetrics());
+        status.put("enabled", true);
+        return status;
+    }
+    
+    /**
+     * Enregistre le retour de l'utilisateur courant sur la dernière proposition
+     * qui lui a été présentée.
+     * 
+     * @param feedback Retour de l'utilisateur
+     * @return La proposition concernée, ou null si aucune n'a été présentée
+     */
+    public ProposalHistory recordProposalFeedback(ProposalFeedback feedback) {
+        return proposalEngine.recordFeedback(userProfile.getId(), feedback);
+    }
+    
+    /**
+     * Décrit le catalogue des propositions (activités compatibles, coût estimé,
+     * instanciation).
+     * 
+     * @return Liste des types de propositions
+     */
+    public List<Map<String, Object>> getProposalCatalog() {
+        return proposalEngine.getCatalog();
+    }
+    
+    /**
+     * Obtient les métriques d'évaluation des propositions (latences et dépassements
+     * d'échéance par proposition, déclenchements sur changement d'activité).
+     * 
+     * @return Map des métriques d'évaluation
+     */
+    public Map<String, Object> getProposalEvaluationMetrics() {
+        Map<String, Object> metrics = new HashMap<>(proposalEngine.getEvaluationMetrics());
+        metrics.put("trigger", proposalTrigger.getMetrics());
+        return metrics;
+    }
+    
+    /**
+     * Obtient les dernières traces de décision du moteur de propositions.
+     * 
+     * @param limit Nombre maximal de traces
+     * @return Les traces, de la plus récente à la plus ancienne
+     */
+    public List<DecisionTrace> getProposalDecisionTraces(int limit) {
+        return proposalEngine.getRecentTraces(limit);
+    }
+    
+    /**
+     * Obtient les métriques de persistance (pool de connexions, file d'écriture différée).
+     * 
+     * @return Map des métriques par composant
+     */
+    public Map<String, Object> getPersistenceMetrics() {
+        Map<String, Object> metrics = new HashMap<>(persistenceBackend.getMetrics());
+        if (proposalWriteBehindQueue != null) {
+            metrics.put("proposalWriteBehind", proposalWriteBehindQueue.getMetrics());
+        }
+        if (activityWriteBehindQueue != null) {
+            metrics.put("activityWriteBehind", activityWriteBehindQueue.getMetrics());
+        }
+        if (proposalRetentionService != null) {
+            metrics.put("proposalRetention", proposalRetentionService.getMetrics());
+        }
+        if (databaseBackupService != null) {
+            metrics.put("backup", databaseBackupService.getMetrics());
+        }
+        return metrics;
     }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.angel.intelligence;
+
+import com.angel.model.Activity;
+import com.angel.model.ProposalAcceptanceStat;
+import com.angel.persistence.repository.AcceptanceStatsRepository;
+import com.angel.util.DateTimeUtil;
+import com.angel.util.LogUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Taux d'acceptation appris en continu, par utilisateur, type de proposition,
+ * activité et heure de la journée. Chaque utilisateur d'un foyer a son propre modèle.
+ *
+ * Chaque cellule garde deux compteurs amortis exponentiellement (présentations et
+ * acceptations) : un événement compte pour 1 au moment où il survient, puis pour
+ * moitié après chaque demi-vie. L'amortissement est appliqué à la lecture et à
+ * l'écriture de la cellule, sans tâche de fond. Les cellules d'un utilisateur et d'un
+ * type sont rangées dans des tableaux indexés par {@code activité * 24 + heure} : une
+ * lecture est un simple accès indexé, sans requête au stockage. Les cellules modifiées sont
+ * enregistrées périodiquement par {@link #persistTo(AcceptanceStatsRepository)}.
+ */
+public class AcceptanceStatistics {
+
+    private static final Logger LOGGER = LogUtil.getLogger(AcceptanceStatistics.class);
+
+    private static final int HOURS = 24;
+    private static final int CELLS = Activity.values().length * HOURS;
+    // Lissage : une cellule sans historique a un taux de PRIOR_RATE, comme après PRIOR_WEIGHT présentations
+    private static final double PRIOR_RATE = 0.5;
+    private static final double PRIOR_WEIGHT = 2.0;
+
+    private static final class TypeStats {
+        final double[] shown = new double[CELLS];
+        final double[] accepted = new double[CELLS];
+        final long[] updatedAt = new long[CELLS];
+        final boolean[] dirty = new boolean[CELLS];
+    }
+
+    private record StatsKey(long userId, String proposalType) {}
+
+    private final Map<StatsKey, TypeStats> statsByType = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile double decayPerMilli;
+
+    /**
+     * Crée un modèle vide.
+     *
+     * @param halfLifeMillis Demi-vie des compteurs, en millisecondes
+     */
+    public AcceptanceStatistics(long halfLifeMillis) {
+        setHalfLife(halfLifeMillis);
+    }
+
+    /**
+     * Change la demi-vie des compteurs ; elle s'applique aux prochains amortissements.
+     *
+     * @param halfLifeMillis Demi-vie des compteurs, en millisecondes
+     */
+    public void setHalfLife(long halfLifeMillis) {
+        this.decayPerMilli = Math.log(2) / Math.max(1L, halfLifeMillis);
+    }
+
+    private static int cell(Activity activity, int hourOfDay) {
+        return activity.ordinal() * HOURS + hourOfDay;
+    }
+
+    private TypeStats statsFor(long userId, String proposalType) {
+        return statsByType.computeIfAbsent(new StatsKey(userId, proposalType), key -> new TypeStats());
+    }
+
+    /**
+     * Amortit une cellule jusqu'à nowMillis. Appelé sous le verrou du type.
+     */
+    private void decay(TypeStats stats, int cell, long nowMillis) {
+        long elapsed = nowMillis - stats.updatedAt[cell];
+        if (elapsed > 0) {
+            double factor = Math.exp(-decayPerMilli * elapsed);
+            stats.shown[cell] *= factor;
+            stats.accepted[cell] *= factor;
+            stats.updatedAt[cell] = nowMillis;
+        }
+    }
+
+    /**
+     * Compte une présentation de la proposition.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activity Activité lors de la présentation
+     * @param shownAt Date de la présentation
+     */
+    public void recordShown(long userId, String proposalType, Activity activity, LocalDateTime shownAt) {
+        add(userId, proposalType, activity, shownAt, 1.0, 0.0);
+    }
+
+    /**
+     * Compte l'acceptation d'une proposition, rattachée à l'activité et à l'heure
+     * de sa présentation.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activity Activité lors de la présentation
+     * @param shownAt Date de la présentation
+     */
+    public void recordAccepted(long userId, String proposalType, Activity activity, LocalDateTime shownAt) {
+        add(userId, proposalType, activity, shownAt, 0.0, 1.0);
+    }
+
+    private void add(long userId, String proposalType, Activity activity, LocalDateTime shownAt,
+                     double shown, double accepted) {
+        TypeStats stats = statsFor(userId, proposalType);
+        int cell = cell(activity, shownAt.getHour());
+        long nowMillis = System.currentTimeMillis();
+        synchronized (stats) {
+            decay(stats, cell, nowMillis);
+            stats.shown[cell] += shown;
+            stats.accepted[cell] += accepted;
+            stats.dirty[cell] = true;
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Obtient le taux d'acceptation lissé d'une proposition pour un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activity Activité actuelle
+     * @param hourOfDay Heure actuelle (0-23)
+     * @return Taux entre 0 et 1 ; 0.5 sans historique
+     */
+    public double getAcceptanceRate(long userId, String proposalType, Activity activity, int hourOfDay) {
+        TypeStats stats = statsByType.get(new StatsKey(userId, proposalType));
+        if (stats == null) {
+            return PRIOR_RATE;
+        }
+        int cell = cell(activity, hourOfDay);
+        double shown;
+        double accepted;
+        synchronized (stats) {
+            decay(stats, cell, System.currentTimeMillis());
+            shown = stats.shown[cell];
+            accepted = stats.accepted[cell];
+        }
+        return (accepted + PRIOR_RATE * PRIOR_WEIGHT) / (shown + PRIOR_WEIGHT);
+    }
+
+    /**
+     * Calcule l'ajustement de priorité d'une proposition d'après son taux d'acceptation.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activity Activité actuelle
+     * @param hourOfDay Heure actuelle (0-23)
+     * @param maxBonus Ajustement maximal, atteint pour un taux de 0 ou de 1
+     * @return Ajustement entre -maxBonus et +maxBonus ; 0 sans historique
+     */
+    public int getPriorityBonus(long userId, String proposalType, Activity activity, int hourOfDay, int maxBonus) {
+        double rate = getAcceptanceRate(userId, proposalType, activity, hourOfDay);
+        return (int) Math.round((rate - PRIOR_RATE) * 2 * maxBonus);
+    }
+
+    /**
+     * Obtient la version du modèle, incrémentée à chaque présentation ou acceptation.
+     *
+     * @return La version courante
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Charge des statistiques enregistrées ; les cellules chargées remplacent les
+     * cellules en mémoire. Les lignes d'une activité inconnue sont ignorées.
+     *
+     * @param stats Statistiques lues dans le stockage
+     */
+    public void load(List<ProposalAcceptanceStat> stats) {
+        for (ProposalAcceptanceStat stat : stats) {
+            Activity activity;
+            try {
+                activity = Activity.valueOf(stat.getActivityType());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            TypeStats typeStats = statsFor(stat.getUserId(), stat.getProposalType());
+            int cell = cell(activity, stat.getHourOfDay());
+            synchronized (typeStats) {
+                typeStats.shown[cell] = stat.getShown();
+                typeStats.accepted[cell] = stat.getAccepted();
+                typeStats.updatedAt[cell] = DateTimeUtil.toTimestamp(stat.getUpdatedAt());
+                typeStats.dirty[cell] = false;
+            }
+        }
+        version.incrementAndGet();
+        LOGGER.log(Level.INFO, "{0} statistiques d''acceptation chargées", stats.size());
+    }
+
+    /**
+     * Enregistre les cellules modifiées depuis le dernier enregistrement. En cas
+     * d'échec, elles restent à enregistrer.
+     *
+     * @param repository Stockage des statistiques
+     * @return Nombre de cellules enregistrées
+     */
+    public int persistTo(AcceptanceStatsRepository repository) {
+        List<ProposalAcceptanceStat> changed = new ArrayList<>();
+        List<Runnable> restore = new ArrayList<>();
+        Activity[] activities = Activity.values();
+
+        statsByType.forEach((key, stats) -> {
+            synchronized (stats) {
+                for (int cell = 0; cell < CELLS; cell++) {
+                    if (stats.dirty[cell]) {
+                        stats.dirty[cell] = false;
+                        changed.add(new ProposalAcceptanceStat(key.userId(), key.proposalType(),
+                            activities[cell / HOURS].name(), cell % HOURS,
+                            stats.shown[cell], stats.accepted[cell], DateTimeUtil.fromTimestamp(stats.updatedAt[cell])));
+                        int changedCell = cell;
+                        restore.add(() -> {
+                            synchronized (stats) {
+                                stats.dirty[changedCell] = true;
+                            }
+                        });
+                    }
+                }
+            }
+        });
+
+        try {
+            return repository.saveAcceptanceStats(changed);
+        } catch (RuntimeException e) {
+            restore.forEach(Runnable::run);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.angel.intelligence;
+
+import com.angel.model.Activity;
+import com.angel.util.DateTimeUtil;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Historique borné des changements d'activité, dans l'ordre chronologique.
+ *
+ * Les entrées sont rangées dans un tampon circulaire de taille fixe : des timestamps
+ * primitifs (millisecondes depuis l'epoch) et les ordinaux des activités sur un
+ * octet, sans objet alloué par entrée. Un seul thread écrit à la fois ; les lectures
+ * se font sans verrou. L'écrivain publie chaque entrée en incrémentant un compteur
+ * volatile, et un lecteur écarte après coup les entrées que l'écrivain a pu écraser
+ * pendant sa lecture. Les entrées plus anciennes que la fenêtre de rétention, ou
+ * au-delà de la capacité, sont évincées en avançant simplement le début du tampon.
+ * Les requêtes par intervalle trouvent leur première entrée par recherche dichotomique.
+ */
+public class ActivityHistoryBuffer {
+
+    private static final Activity[] ACTIVITIES = Activity.values();
+
+    private final long[] timestamps;
+    private final byte[] activities;
+    private final long retentionMillis;
+
+    // Indices logiques croissants ; l'entrée d'indice i occupe la case i % capacité
+    private volatile long written = 0;
+    private volatile long oldest = 0;
+
+    /**
+     * Crée l'historique.
+     *
+     * @param capacity Nombre maximal d'entrées conservées
+     * @param retentionMillis Durée de conservation des entrées en millisecondes
+     */
+    public ActivityHistoryBuffer(int capacity, long retentionMillis) {
+        int size = Math.max(1, capacity);
+        this.timestamps = new long[size];
+        this.activities = new byte[size];
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Ajoute un changement d'activité et évince les entrées expirées. Les timestamps
+     * sont rendus croissants : une entrée antérieure à la précédente (horloge
+     * reculée) prend le timestamp de la précédente.
+     *
+     * @param timestampMillis Instant du changement en millisecondes depuis l'epoch
+     * @param activity Nouvelle activité
+     */
+    public synchronized void append(long timestampMillis, Activity activity) {
+        long index = written;
+        int capacity = timestamps.length;
+        if (index > oldest) {
+            timestampMillis = Math.max(timestampMillis, timestamps[(int) ((index - 1) % capacity)]);
+        }
+
+        int slot = (int) (index % capacity);
+        timestamps[slot] = timestampMillis;
+        activities[slot] = (byte) activity.ordinal();
+        written = index + 1;
+
+        // Éviction : au-delà de la capacité puis au-delà de la rétention, en O(1) amorti
+        long first = Math.max(oldest, index + 1 - capacity);
+        long cutoff = timestampMillis - retentionMillis;
+        while (first < index && timestamps[(int) (first % capacity)] < cutoff) {
+            first++;
+        }
+        oldest = first;
+    }
+
+    /**
+     * Obtient le nombre d'entrées conservées.
+     *
+     * @return Nombre d'entrées
+     */
+    public int size() {
+        long end = written;
+        return (int) (end - Math.max(oldest, end - timestamps.length));
+    }
+
+    /**
+     * Obtient les changements d'activité compris dans un intervalle.
+     *
+     * @param fromMillis Début inclus, en millisecondes depuis l'epoch
+     * @param toMillis Fin incluse, en millisecondes depuis l'epoch
+     * @return Map immuable triée par date
+     */
+    public Map<LocalDateTime, Activity> between(long fromMillis, long toMillis) {
+        int capacity = timestamps.length;
+        long end = written;
+        long first = lowerBound(Math.max(oldest, end - capacity), end, fromMillis);
+
+        long[] readTimestamps = new long[(int) (end - first)];
+        byte[] readActivities = new byte[readTimestamps.length];
+        int count = 0;
+        for (long index = first; index < end; index++) {
+            int slot = (int) (index % capacity);
+            long timestamp = timestamps[slot];
+            if (timestamp > toMillis) {
+                break;
+            }
+            readTimestamps[count] = timestamp;
+            readActivities[count] = activities[slot];
+            count++;
+        }
+
+        // Les cases réécrites par l'écrivain pendant la lecture sont écartées
+        int skipped = (int) Math.min(count, Math.max(0, written - capacity - first));
+        NavigableMap<LocalDateTime, Activity> result = new TreeMap<>();
+        for (int i = skipped; i < count; i++) {
+            result.put(DateTimeUtil.fromTimestamp(readTimestamps[i]), ACTIVITIES[readActivities[i]]);
+        }
+        return Collections.unmodifiableNavigableMap(result);
+    }
+
+    /**
+     * Obtient tous les changements d'activité conservés.
+     *
+     * @return Map immuable triée par date
+     */
+    public Map<LocalDateTime, Activity> snapshot() {
+        return between(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Obtient les changements d'activité depuis un instant donné.
+     *
+     * @param fromMillis Début inclus, en millisecondes depuis l'epoch
+     * @return Map immuable triée par date
+     */
+    public Map<LocalDateTime, Activity> since(long fromMillis) {
+        return between(fromMillis, Long.MAX_VALUE);
+    }
+
+    /**
+     * Premier indice logique de [low, high) dont le timestamp est supérieur ou égal
+     * à la valeur donnée.
+     */
+    private long lowerBound(long low, long high, long value) {
+        int capacity = timestamps.length;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestamps[(int) (mid % capacity)] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,153 @@
+package com.angel.intelligence;
+
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.util.DateTimeUtil;
+import com.angel.util.LogUtil;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dernière présentation de chaque type de proposition, par utilisateur, et délai
+ * minimal entre deux présentations d'un même type.
+ *
+ * Chaque type reçoit un indice à sa première apparition ; par utilisateur, les
+ * instants de dernière présentation (millisecondes depuis l'epoch) sont rangés dans
+ * un tableau primitif à cet indice. Vérifier un délai revient à lire une case de ce
+ * tableau, quel que soit l'âge de la dernière présentation : contrairement à l'index
+ * d'historique, le suivi n'a pas de fenêtre de rétention. L'état d'un utilisateur est
+ * reconstruit depuis le stockage à sa première consultation.
+ */
+public class CooldownTracker {
+
+    private static final Logger LOGGER = LogUtil.getLogger(CooldownTracker.class);
+
+    private final ProposalRepository proposalRepository;
+    private final Map<String, Integer> typeIndexes = new ConcurrentHashMap<>();
+    private final Map<Long, UserCooldowns> users = new ConcurrentHashMap<>();
+    // Délai par indice de type, remplacé en bloc quand la configuration change
+    private volatile long[] cooldownMillis = new long[0];
+
+    /**
+     * Crée le suivi.
+     *
+     * @param proposalRepository Stockage lu pour reconstruire l'état d'un utilisateur
+     */
+    public CooldownTracker(ProposalRepository proposalRepository) {
+        this.proposalRepository = proposalRepository;
+    }
+
+    /**
+     * Définit les délais minimaux entre deux présentations, par type de proposition.
+     * Les types absents n'ont pas de délai.
+     *
+     * @param cooldowns Délai en millisecondes par type de proposition
+     */
+    public void setCooldowns(Map<String, Long> cooldowns) {
+        Map<Integer, Long> byIndex = new HashMap<>();
+        int size = 0;
+        for (Map.Entry<String, Long> entry : cooldowns.entrySet()) {
+            int index = indexOf(entry.getKey());
+            byIndex.put(index, entry.getValue());
+            size = Math.max(size, index + 1);
+        }
+        long[] values = new long[size];
+        byIndex.forEach((index, value) -> values[index] = value);
+        cooldownMillis = values;
+    }
+
+    /**
+     * Enregistre la présentation d'une proposition.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param shownAtMillis Instant de présentation en millisecondes depuis l'epoch
+     */
+    public void record(long userId, String proposalType, long shownAtMillis) {
+        userCooldowns(userId).record(indexOf(proposalType), shownAtMillis);
+    }
+
+    /**
+     * Vérifie si le délai minimal d'un type de proposition court encore pour un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param nowMillis Instant de référence en millisecondes depuis l'epoch
+     * @return true si la dernière présentation est plus récente que le délai
+     */
+    public boolean isCoolingDown(long userId, String proposalType, long nowMillis) {
+        int index = indexOf(proposalType);
+        long[] cooldowns = cooldownMillis;
+        if (index >= cooldowns.length || cooldowns[index] <= 0) {
+            return false;
+        }
+        long last = userCooldowns(userId).lastShownAt(index);
+        return last >= 0 && nowMillis - last < cooldowns[index];
+    }
+
+    /**
+     * Obtient l'instant de dernière présentation d'un type de proposition.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @return Timestamp en millisecondes, ou -1 si le type n'a jamais été présenté
+     */
+    public long lastShownAt(long userId, String proposalType) {
+        return userCooldowns(userId).lastShownAt(indexOf(proposalType));
+    }
+
+    private int indexOf(String proposalType) {
+        Integer index = typeIndexes.get(proposalType);
+        if (index != null) {
+            return index;
+        }
+        synchronized (typeIndexes) {
+            return typeIndexes.computeIfAbsent(proposalType, type -> typeIndexes.size());
+        }
+    }
+
+    private UserCooldowns userCooldowns(long userId) {
+        UserCooldowns cooldowns = users.get(userId);
+        if (cooldowns != null) {
+            return cooldowns;
+        }
+        return users.computeIfAbsent(userId, id -> {
+            UserCooldowns loaded = new UserCooldowns();
+            Map<String, LocalDateTime> lastShown = proposalRepository.getLastShownByType(id);
+            lastShown.forEach((type, shownAt) -> loaded.record(indexOf(type), DateTimeUtil.toTimestamp(shownAt)));
+            LOGGER.log(Level.INFO, "Délais des propositions reconstruits pour l''utilisateur {0} ({1} types)",
+                       new Object[]{id, lastShown.size()});
+            return loaded;
+        });
+    }
+
+    /**
+     * Instants de dernière présentation d'un utilisateur, indexés par type. Le tableau
+     * est remplacé quand il doit grandir ; une lecture n'a pas besoin de verrou.
+     */
+    private static final class UserCooldowns {
+
+        private volatile long[] lastShown = new long[0];
+
+        synchronized void record(int index, long shownAtMillis) {
+            long[] values = lastShown;
+            if (index >= values.length) {
+                int oldLength = values.length;
+                values = Arrays.copyOf(values, Math.max(index + 1, oldLength * 2));
+                Arrays.fill(values, oldLength, values.length, -1L);
+            }
+            values[index] = Math.max(values[index], shownAtMillis);
+            lastShown = values;
+        }
+
+        long lastShownAt(int index) {
+            long[] values = lastShown;
+            return index < values.length ? values[index] : -1L;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.angel.intelligence;
+
+import com.angel.model.Activity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Trace d'une décision du moteur de propositions : durée de chaque étape, priorité
+ * des candidates retenues et raison du rejet des autres.
+ *
+ * @param timestamp Instant de la décision, en millisecondes depuis l'epoch
+ * @param userId ID de l'utilisateur
+ * @param activity Activité évaluée
+ * @param outcome Issue de la décision (voir {@link Outcome})
+ * @param selected Type de la proposition retenue, ou null
+ * @param totalMicros Durée totale de la décision, en microsecondes
+ * @param stageMicros Durée par étape, en microsecondes ; l'appropriation et le calcul
+ *                    des priorités sont cumulés sur les candidates, évaluées en parallèle
+ * @param scores Priorité de chaque candidate appropriée
+ * @param rejections Raison du rejet de chaque candidate écartée
+ */
+public record DecisionTrace(
+    long timestamp,
+    long userId,
+    Activity activity,
+    DecisionTrace.Outcome outcome,
+    String selected,
+    long totalMicros,
+    Map<String, Long> stageMicros,
+    Map<String, Integer> scores,
+    Map<String, DecisionTrace.Rejection> rejections
+) {
+
+    /**
+     * Étapes chronométrées d'une décision.
+     */
+    public enum Stage {
+        HISTORY, ROUTING, LIMITS, APPROPRIATENESS, SCORING, PREPARE
+    }
+
+    /**
+     * Issues possibles d'une décision.
+     */
+    public enum Outcome {
+        SELECTED, NONE, CACHED, EXCLUDED_ACTIVITY
+    }
+
+    /**
+     * Raisons de rejet d'une candidate.
+     */
+    public enum Rejection {
+        DAILY_LIMIT, COOLDOWN, NOT_APPROPRIATE, DROPPED, PREPARE_FAILED, LOWER_PRIORITY
+    }
+
+    /**
+     * Collecte la trace pendant la décision. Les durées et les rejets peuvent être
+     * ajoutés depuis les threads d'évaluation.
+     */
+    static final class Recorder {
+
+        private static final Stage[] STAGES = Stage.values();
+
+        private final long timestamp = System.currentTimeMillis();
+        private final long start = System.nanoTime();
+        private final long userId;
+        private final Activity activity;
+        private final AtomicLongArray stageNanos = new AtomicLongArray(STAGES.length);
+        private final Map<String, Rejection> rejections = new ConcurrentHashMap<>();
+        private final Map<String, Integer> scores = new ConcurrentHashMap<>();
+
+        Recorder(long userId, Activity activity) {
+            this.userId = userId;
+            this.activity = activity;
+        }
+
+        /**
+         * Ajoute à une étape le temps écoulé depuis {@code startNanos}.
+         *
+         * @return L'instant courant, début de l'étape suivante
+         */
+        long stage(Stage stage, long startNanos) {
+            long now = System.nanoTime();
+            stageNanos.addAndGet(stage.ordinal(), now - startNanos);
+            return now;
+        }
+
+        void reject(String proposalType, Rejection reason) {
+            rejections.put(proposalType, reason);
+        }
+
+        boolean isRejected(String proposalType) {
+            return rejections.containsKey(proposalType);
+        }
+
+        void score(String proposalType, int score) {
+            scores.put(proposalType, score);
+        }
+
+        DecisionTrace finish(Outcome outcome, String selected) {
+            Map<String, Long> stages = new LinkedHashMap<>();
+            for (Stage stage : STAGES) {
+                stages.put(stage.name().toLowerCase(), TimeUnit.NANOSECONDS.toMicros(stageNanos.get(stage.ordinal())));
+            }
+            return new DecisionTrace(timestamp, userId, activity, outcome, selected,
+                                     TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                                     stages, new TreeMap<>(scores), new TreeMap<>(rejections));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.angel.intelligence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tampon circulaire des dernières traces de décision. L'ajout est une écriture dans
+ * un tableau sans verrou ; la trace la plus ancienne est écrasée.
+ */
+public class DecisionTraceBuffer {
+
+    private final AtomicReferenceArray<DecisionTrace> traces;
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * Crée le tampon.
+     *
+     * @param capacity Nombre de traces conservées
+     */
+    public DecisionTraceBuffer(int capacity) {
+        this.traces = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Ajoute une trace.
+     *
+     * @param trace La trace à conserver
+     */
+    public void add(DecisionTrace trace) {
+        long slot = written.getAndIncrement();
+        traces.set((int) (slot % traces.length()), trace);
+    }
+
+    /**
+     * Obtient les traces conservées, de la plus récente à la plus ancienne.
+     *
+     * @param limit Nombre maximal de traces retournées
+     * @return Les traces
+     */
+    public List<DecisionTrace> getRecent(int limit) {
+        long last = written.get();
+        int count = (int) Math.min(Math.min(last, traces.length()), Math.max(0, limit));
+        List<DecisionTrace> recent = new ArrayList<>(count);
+        for (long slot = last - 1; slot >= last - count; slot--) {
+            DecisionTrace trace = traces.get((int) (slot % traces.length()));
+            if (trace != null) {
+                recent.add(trace);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * Calcule la durée moyenne de chaque étape sur les traces conservées, pour repérer
+     * l'étape qui domine la latence des décisions.
+     *
+     * @return Nombre de traces, durée totale moyenne et durée moyenne par étape, en microsecondes
+     */
+    public Map<String, Object> getStageAverages() {
+        List<DecisionTrace> recent = getRecent(traces.length());
+        Map<String, Long> totals = new LinkedHashMap<>();
+        long total = 0;
+        for (DecisionTrace trace : recent) {
+            total += trace.totalMicros();
+            trace.stageMicros().forEach((stage, micros) -> totals.merge(stage, micros, Long::sum));
+        }
+
+        Map<String, Object> averages = new LinkedHashMap<>();
+        averages.put("traces", recent.size());
+        averages.put("averageTotalMicros", recent.isEmpty() ? 0 : total / recent.size());
+        Map<String, Long> stages = new LinkedHashMap<>();
+        totals.forEach((stage, micros) -> stages.put(stage, micros / recent.size()));
+        averages.put("averageStageMicros", stages);
+        return averages;
+    }
+}
@@ -0,0 +1,125 @@
+package com.angel.intelligence;
+
+import com.angel.intelligence.proposals.PreparedProposal;
+import com.angel.model.Activity;
+import com.angel.util.DateTimeUtil;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contenus de propositions préparés à l'avance, par utilisateur, type de proposition
+ * et activité, valables pendant une durée limitée.
+ *
+ * Les entrées expirées sont ignorées à la lecture et remplacées au préchargement
+ * suivant ; une entrée est retirée dès que sa proposition est présentée, pour que la
+ * présentation suivante reçoive un contenu frais. Une entrée expire au plus tard à la
+ * fin de l'heure où elle a été préparée : un contenu dépendant de l'heure n'est
+ * jamais présenté hors de l'heure pour laquelle il a été rendu.
+ */
+public class PreparedProposalCache {
+
+    private record Key(long userId, String proposalType, Activity activity) {}
+
+    private record Entry(PreparedProposal prepared, long expiresAt) {}
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long ttlMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Crée le cache.
+     *
+     * @param ttlMillis Durée de validité d'un contenu préparé ; 0 désactive le cache
+     */
+    public PreparedProposalCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Change la durée de validité des prochains contenus préparés.
+     *
+     * @param ttlMillis Durée de validité en millisecondes ; 0 désactive le cache
+     */
+    public void setTtl(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        if (ttlMillis <= 0) {
+            entries.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * Indique si un contenu valide est disponible, sans compter d'accès.
+     */
+    public boolean contains(long userId, String proposalType, Activity activity, long nowMillis) {
+        Entry entry = entries.get(new Key(userId, proposalType, activity));
+        return entry != null && entry.expiresAt() > nowMillis;
+    }
+
+    /**
+     * Obtient un contenu préparé à l'avance.
+     *
+     * @return Le contenu, ou null s'il est absent ou expiré
+     */
+    public PreparedProposal get(long userId, String proposalType, Activity activity, long nowMillis) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(new Key(userId, proposalType, activity));
+        if (entry == null || entry.expiresAt() <= nowMillis) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.prepared();
+    }
+
+    /**
+     * Conserve un contenu préparé à l'avance.
+     *
+     * @param now Instant de préparation du contenu
+     */
+    public void put(long userId, Activity activity, PreparedProposal prepared, LocalDateTime now) {
+        long ttl = ttlMillis;
+        if (ttl > 0) {
+            long nowMillis = DateTimeUtil.toTimestamp(now);
+            long hourEnd = DateTimeUtil.toTimestamp(now.truncatedTo(ChronoUnit.HOURS).plusHours(1));
+            entries.put(new Key(userId, prepared.proposalId(), activity),
+                        new Entry(prepared, Math.min(nowMillis + ttl, hourEnd)));
+            stores.increment();
+        }
+    }
+
+    /**
+     * Retire les contenus d'un type de proposition pour un utilisateur, quelle que
+     * soit l'activité.
+     */
+    public void invalidate(long userId, String proposalType) {
+        entries.keySet().removeIf(key -> key.userId() == userId && key.proposalType().equals(proposalType));
+    }
+
+    /**
+     * Obtient les métriques du cache.
+     *
+     * @return Map contenant la durée de validité, le nombre d'entrées, de succès,
+     *         d'échecs et de contenus préparés à l'avance
+     */
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "ttlMillis", ttlMillis,
+            "entries", entries.size(),
+            "hits", hits.sum(),
+            "misses", misses.sum(),
+            "prefetched", stores.sum()
+        );
+    }
+}
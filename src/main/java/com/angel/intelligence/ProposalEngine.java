@@ -1,18 +1,25 @@
 package com.angel.intelligence;
 
 import com.angel.config.ConfigManager;
+import com.angel.intelligence.proposals.PreparedProposal;
 import com.angel.intelligence.proposals.Proposal;
 import com.angel.model.Activity;
+import com.angel.model.ProposalDailyCount;
 import com.angel.model.ProposalHistory;
 import com.angel.model.UserProfile;
-import com.angel.persistence.dao.ProposalDAO;
+import com.angel.persistence.WriteBehindQueue;
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.util.DateTimeUtil;
 import com.angel.util.LogUtil;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Moteur d'intelligence qui décide quelles propositions faire à l'utilisateur
@@ -23,125 +30,524 @@ public class ProposalEngine {
     private static final Logger LOGGER = LogUtil.getLogger(ProposalEngine.class);
     
     private final ConfigManager configManager;
-    private final ProposalDAO proposalDAO;
-    private final List<Proposal> availableProposals;
+    private final ProposalRepository proposalRepository;
+    private final ProposalRegistry registry;
+    private final WriteBehindQueue<ProposalHistory> writeBehindQueue;
+    private final ProposalEvaluationExecutor evaluationExecutor;
+    // Un index par utilisateur, chargé depuis le stockage à sa première évaluation
+    private final Map<Long, ProposalHistoryIndex> historyIndexes = new ConcurrentHashMap<>();
+    // Délais minimaux entre deux présentations d'un même type, sans limite de rétention
+    private final CooldownTracker cooldownTracker;
+    // Remplacées en bloc à chaque rechargement de la configuration
+    private volatile ProposalRoutingTable routingTable;
+    private volatile Map<String, Integer> dailyLimits;
+    // Scores des candidates de la dernière évaluation, pour les diagnostics
+    private volatile List<ScoredProposal> lastCandidateScores = List.of();
+    // Dernière décision par utilisateur, avec les versions des entrées qui l'ont produite
+    private final Map<Long, CachedDecision> decisionCache = new ConcurrentHashMap<>();
+    private volatile long decisionTimeBucketMillis;
+    private final LongAdder decisionCacheHits = new LongAdder();
+    private final LongAdder decisionCacheMisses = new LongAdder();
+    // Dernières décisions, avec la durée de chaque étape et les raisons des rejets
+    private final DecisionTraceBuffer traces;
+    // Contenus préparés à l'avance pour les propositions probables
+    private final PreparedProposalCache preparedCache;
+    private volatile int prefetchMaxCandidates;
+    // Taux d'acceptation appris, ajoutés à la priorité déclarée par chaque proposition
+    private final AcceptanceStatistics acceptanceStatistics;
+    private volatile int learningMaxBonus;
+    // Dernière proposition présentée à chaque utilisateur, en attente de son retour
+    private final Map<Long, ProposalHistory> lastPresented = new ConcurrentHashMap<>();
+    // Propositions dont le retour est arrivé avant que leur écriture ne leur attribue un ID
+    private final Set<ProposalHistory> pendingFeedback = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Entrées d'une décision : l'activité, la tranche horaire et les versions de
+     * l'historique, des préférences, de la configuration et des taux d'acceptation.
+     */
+    private record DecisionKey(Activity activity, long timeBucket, long historyVersion,
+                               long preferencesVersion, long configVersion, long learningVersion) {}
+    
+    private record CachedDecision(DecisionKey key, PreparedProposal outcome, List<ScoredProposal> scores) {}
     
     /**
      * Constructeur avec injection des dépendances.
      * 
      * @param configManager Gestionnaire de configuration
-     * @param proposalDAO DAO pour accéder à l'historique des propositions
+     * @param proposalRepository Stockage de l'historique des propositions
+     * @param availableProposals Liste des propositions disponibles
+     */
+    public ProposalEngine(ConfigManager configManager, ProposalRepository proposalRepository, List<Proposal> availableProposals) {
+        this(configManager, proposalRepository, availableProposals, null);
+    }
+    
+    /**
+     * Constructeur avec écriture différée de l'historique des propositions.
+     * 
+     * @param configManager Gestionnaire de configuration
+     * @param proposalRepository Stockage de l'historique des propositions
      * @param availableProposals Liste des propositions disponibles
+     * @param writeBehindQueue File d'écriture différée, ou null pour une écriture synchrone
      */
-    public ProposalEngine(ConfigManager configManager, ProposalDAO proposalDAO, List<Proposal> availableProposals) {
+    public ProposalEngine(ConfigManager configManager, ProposalRepository proposalRepository, List<Proposal> availableProposals,
+                          WriteBehindQueue<ProposalHistory> writeBehindQueue) {
+        this(configManager, proposalRepository, ProposalRegistry.of(availableProposals), writeBehindQueue, null);
+    }
+    
+    /**
+     * Constructeur avec évaluation parallèle et bornée dans le temps des propositions.
+     * 
+     * @param configManager Gestionnaire de configuration
+     * @param proposalRepository Stockage de l'historique des propositions
+     * @param registry Catalogue des propositions, instanciées à leur première évaluation
+     * @param writeBehindQueue File d'écriture différée, ou null pour une écriture synchrone
+     * @param evaluationExecutor Pool d'évaluation, ou null pour évaluer sur le thread appelant
+     */
+    public ProposalEngine(ConfigManager configManager, ProposalRepository proposalRepository, ProposalRegistry registry,
+                          WriteBehindQueue<ProposalHistory> writeBehindQueue, ProposalEvaluationExecutor evaluationExecutor) {
         this.configManager = configManager;
-        this.proposalDAO = proposalDAO;
-        this.availableProposals = availableProposals;
+        this.proposalRepository = proposalRepository;
+        this.registry = registry;
+        this.writeBehindQueue = writeBehindQueue;
+        this.evaluationExecutor = evaluationExecutor;
+        this.routingTable = ProposalRoutingTable.compile(configManager, registry);
+        this.cooldownTracker = new CooldownTracker(proposalRepository);
+        this.traces = new DecisionTraceBuffer(configManager.getInt("proposals.trace.capacity", 100));
+        this.preparedCache = new PreparedProposalCache(configManager.getLong("proposals.prefetch.ttl", 300000L));
+        this.prefetchMaxCandidates = configManager.getInt("proposals.prefetch.max-candidates", 2);
+        cooldownTracker.setCooldowns(readCooldowns());
+        this.dailyLimits = readDailyLimits();
+        this.decisionTimeBucketMillis = configManager.getLong("proposals.decision-cache.time-bucket", 300000L);
+        this.acceptanceStatistics = new AcceptanceStatistics(configManager.getLong("proposals.learning.half-life", 1209600000L));
+        this.learningMaxBonus = configManager.getInt("proposals.learning.max-bonus", 20);
+        configManager.addReloadListener(this::onConfigurationReloaded);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.addWrittenListener(this::applyPendingFeedback);
+        }
+    }
+    
+    /**
+     * Recompile les règles de propositions et la table de routage activité -> propositions
+     * après un rechargement de la configuration. Les évaluations en cours terminent avec
+     * l'ancienne table.
+     */
+    private void onConfigurationReloaded() {
+        registry.reloadRules();
+        routingTable = ProposalRoutingTable.compile(configManager, registry);
+        cooldownTracker.setCooldowns(readCooldowns());
+        dailyLimits = readDailyLimits();
+        decisionTimeBucketMillis = configManager.getLong("proposals.decision-cache.time-bucket", 300000L);
+        acceptanceStatistics.setHalfLife(configManager.getLong("proposals.learning.half-life", 1209600000L));
+        learningMaxBonus = configManager.getInt("proposals.learning.max-bonus", 20);
+        preparedCache.setTtl(configManager.getLong("proposals.prefetch.ttl", 300000L));
+        prefetchMaxCandidates = configManager.getInt("proposals.prefetch.max-candidates", 2);
+        LOGGER.log(Level.INFO, "Table de routage des propositions recompilée");
+    }
+    
+    /**
+     * Lit le délai minimal entre deux présentations de chaque type de proposition :
+     * {@code proposals.rules.<id>.cooldown} pour une règle de configuration,
+     * {@code proposals.daily.<type>.min-time-between} sinon (l'ancienne clé
+     * {@code minTimeBetween} reste lue si elle est seule définie).
+     * 
+     * @return Délai en millisecondes par type de proposition
+     */
+    private Map<String, Long> readCooldowns() {
+        Map<String, Long> cooldowns = new HashMap<>();
+        for (RegisteredProposal proposal : registry.getProposals()) {
+            String type = proposal.getType();
+            String key = proposal.isDeclarative()
+                ? "proposals.rules." + type + ".cooldown"
+                : dailyKey(type, "min-time-between", "minTimeBetween");
+            cooldowns.put(type, configManager.getLong(key, 0L));
+        }
+        return cooldowns;
+    }
+    
+    /**
+     * Lit le nombre maximal de présentations par jour de chaque type de proposition :
+     * {@code proposals.daily.<type>.max-per-day} (l'ancienne clé {@code maxPerDay}
+     * reste lue si elle est seule définie). Les règles de configuration appliquent
+     * leur propre limite.
+     * 
+     * @return Limite quotidienne par type de proposition, absente si illimitée
+     */
+    private Map<String, Integer> readDailyLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        for (RegisteredProposal proposal : registry.getProposals()) {
+            if (proposal.isDeclarative()) {
+                continue;
+            }
+            int maxPerDay = configManager.getInt(dailyKey(proposal.getType(), "max-per-day", "maxPerDay"), 0);
+            if (maxPerDay > 0) {
+                limits.put(proposal.getType(), maxPerDay);
+            }
+        }
+        return limits;
+    }
+    
+    /**
+     * Clé {@code proposals.daily.<type>.<name>}, ou l'ancienne clé en camelCase si
+     * seule celle-ci est définie.
+     */
+    private String dailyKey(String type, String name, String legacyName) {
+        String key = "proposals.daily." + type + "." + name;
+        return configManager.hasProperty(key) ? key : "proposals.daily." + type + "." + legacyName;
+    }
+    
+    /**
+     * Obtient l'index de l'historique d'un utilisateur, en chargeant une seule fois
+     * ses propositions des dernières 24h et ses cumuls quotidiens du jour.
+     * 
+     * @param userId ID de l'utilisateur
+     * @return L'index en mémoire de l'historique de cet utilisateur
+     */
+    private ProposalHistoryIndex historyIndexFor(long userId) {
+        return historyIndexes.computeIfAbsent(userId, id -> {
+            ProposalHistoryIndex index = new ProposalHistoryIndex();
+            index.load(proposalRepository.getRecentProposals(id, 24));
+            
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = now.toLocalDate();
+            Map<String, Integer> todayCounts = new HashMap<>();
+            for (ProposalDailyCount count : proposalRepository.getDailyCounts(id, today, today)) {
+                todayCounts.put(count.getProposalType(), count.getCount());
+            }
+            index.seedDailyCounts(DateTimeUtil.toTimestamp(today.atStartOfDay()), DateTimeUtil.toTimestamp(now),
+                                  todayCounts);
+            LOGGER.log(Level.INFO, "Index de l''historique des propositions chargé pour l''utilisateur {0} ({1} entrées)",
+                       new Object[]{id, index.size()});
+            return index;
+        });
     }
     
     /**
      * Détermine la meilleure proposition à faire à l'utilisateur en fonction
      * de son activité actuelle et du contexte.
      * 
+     * La décision est mémorisée par utilisateur : tant que l'activité, la tranche
+     * horaire et les versions de l'historique, des préférences et de la configuration
+     * sont inchangées, la décision précédente (proposition ou absence de proposition)
+     * est retournée sans réévaluer les propositions.
+     * 
      * @param currentActivity Activité actuelle de l'utilisateur
      * @param previousActivities Historique des activités récentes
      * @param userProfile Profil de l'utilisateur
-     * @return La meilleure proposition à faire, ou null si aucune n'est appropriée
+     * @return Le contenu préparé de la meilleure proposition, ou null si aucune n'est appropriée
      */
-    public Proposal determineBestProposal(
+    public PreparedProposal determineBestProposal(
         Activity currentActivity,
         Map<LocalDateTime, Activity> previousActivities,
         UserProfile userProfile
     ) {
+        DecisionTrace.Recorder trace = new DecisionTrace.Recorder(userProfile.getId(), currentActivity);
+        
         // Si l'activité est UNKNOWN ou ne permet pas de propositions, ne rien proposer
         if (currentActivity == Activity.UNKNOWN || !currentActivity.allowsProposals()) {
             LOGGER.log(Level.INFO, "Aucune proposition pour l'activité {0}", currentActivity);
+            traces.add(trace.finish(DecisionTrace.Outcome.EXCLUDED_ACTIVITY, null));
             return null;
         }
         
+        long stageStart = System.nanoTime();
         LocalDateTime now = LocalDateTime.now();
-        List<ProposalHistory> proposalHistory = proposalDAO.getRecentProposals(24); // Dernier 24h
+        long nowMillis = DateTimeUtil.toTimestamp(now);
+        ProposalHistoryIndex historyIndex = historyIndexFor(userProfile.getId());
+        historyIndex.evictExpired(nowMillis);
+        trace.stage(DecisionTrace.Stage.HISTORY, stageStart);
         
-        // Filtrer les propositions appropriées pour l'activité actuelle
-        List<Proposal> appropriateProposals = availableProposals.stream()
-            .filter(p -> isProposalAllowedForActivity(p, currentActivity))
-            .filter(p -> !isDailyLimitReached(p.getId(), proposalHistory))
-            .filter(p -> p.isAppropriate(currentActivity, previousActivities, userProfile, now, proposalHistory))
-            .collect(Collectors.toList());
+        DecisionKey key = null;
+        long timeBucketMillis = decisionTimeBucketMillis;
+        if (timeBucketMillis > 0) {
+            key = new DecisionKey(currentActivity, nowMillis / timeBucketMillis, historyIndex.getVersion(),
+                                  userProfile.getPreferencesVersion(), configManager.getVersion(),
+                                  acceptanceStatistics.getVersion());
+            CachedDecision cached = decisionCache.get(userProfile.getId());
+            if (cached != null && cached.key().equals(key)) {
+                decisionCacheHits.increment();
+                lastCandidateScores = cached.scores();
+                LOGGER.log(Level.FINE, "Décision mémorisée réutilisée pour l''activité {0}", currentActivity);
+                traces.add(trace.finish(DecisionTrace.Outcome.CACHED,
+                                        cached.outcome() != null ? cached.outcome().proposalId() : null));
+                return cached.outcome();
+            }
+            decisionCacheMisses.increment();
+        }
         
-        if (appropriateProposals.isEmpty()) {
-            LOGGER.log(Level.INFO, "Aucune proposition appropriée trouvée pour l'activité {0}", currentActivity);
-            return null;
+        long droppedBefore = evaluationExecutor != null ? evaluationExecutor.getDroppedCount() : 0;
+        List<ScoredProposal> scored = new ArrayList<>();
+        PreparedProposal outcome = evaluate(currentActivity, previousActivities, userProfile, now, historyIndex, scored, trace);
+        List<ScoredProposal> scores = Collections.unmodifiableList(scored);
+        lastCandidateScores = scores;
+        
+        // Une décision prise alors qu'une proposition a été écartée faute de réponse
+        // n'est pas mémorisée : la proposition lente doit pouvoir être réessayée
+        if (key != null && (evaluationExecutor == null || evaluationExecutor.getDroppedCount() == droppedBefore)) {
+            decisionCache.put(userProfile.getId(), new CachedDecision(key, outcome, scores));
         }
+        traces.add(outcome != null
+            ? trace.finish(DecisionTrace.Outcome.SELECTED, outcome.proposalId())
+            : trace.finish(DecisionTrace.Outcome.NONE, null));
+        return outcome;
+    }
+    
+    /**
+     * Évalue les candidates de l'activité et prépare la meilleure.
+     * 
+     * @param scored Reçoit les candidates appropriées et leur priorité
+     * @param trace Reçoit la durée des étapes et la raison du rejet de chaque candidate
+     * @return Le contenu préparé de la meilleure proposition, ou null
+     */
+    private PreparedProposal evaluate(
+        Activity currentActivity,
+        Map<LocalDateTime, Activity> previousActivities,
+        UserProfile userProfile,
+        LocalDateTime now,
+        ProposalHistoryIndex historyIndex,
+        List<ScoredProposal> scored,
+        DecisionTrace.Recorder trace
+    ) {
+        long stageStart = System.nanoTime();
+        List<RegisteredProposal> routed = routingTable.candidatesFor(currentActivity);
+        stageStart = trace.stage(DecisionTrace.Stage.ROUTING, stageStart);
         
-        // Trier par priorité décroissante
-        appropriateProposals.sort((p1, p2) -> {
-            int priority1 = p1.getPriority(currentActivity, previousActivities, userProfile, now, proposalHistory);
-            int priority2 = p2.getPriority(currentActivity, previousActivities, userProfile, now, proposalHistory);
-            return Integer.compare(priority2, priority1); // Ordre décroissant
-        });
+        // Filtrer les propositions appropriées parmi les candidates de l'activité actuelle,
+        // en calculant la priorité de chacune une seule fois
+        // La proposition n'est créée que si elle est candidate, sous sa limite quotidienne
+        // et hors de son délai minimal depuis la dernière présentation
+        long nowMillis = DateTimeUtil.toTimestamp(now);
+        List<Proposal> candidates = new ArrayList<>();
+        for (RegisteredProposal candidate : routed) {
+            if (isDailyLimitReached(historyIndex, candidate.getType(), now)) {
+                trace.reject(candidate.getType(), DecisionTrace.Rejection.DAILY_LIMIT);
+            } else if (cooldownTracker.isCoolingDown(userProfile.getId(), candidate.getType(), nowMillis)) {
+                trace.reject(candidate.getType(), DecisionTrace.Rejection.COOLDOWN);
+            } else {
+                candidates.add(candidate.get());
+            }
+        }
+        trace.stage(DecisionTrace.Stage.LIMITS, stageStart);
         
-        // Choisir la proposition avec la plus haute priorité
-        Proposal bestProposal = appropriateProposals.get(0);
-        LOGGER.log(Level.INFO, "Proposition sélectionnée: {0}", bestProposal.getId());
+        // La priorité déclarée est ajustée par le taux d'acceptation appris pour cette
+        // activité et cette heure, lu en mémoire
+        int maxBonus = learningMaxBonus;
+        Function<Proposal, ScoredProposal> evaluation = candidate -> {
+            long start = System.nanoTime();
+            boolean appropriate = candidate.isAppropriate(currentActivity, previousActivities, userProfile, now, historyIndex);
+            start = trace.stage(DecisionTrace.Stage.APPROPRIATENESS, start);
+            if (!appropriate) {
+                trace.reject(candidate.getId(), DecisionTrace.Rejection.NOT_APPROPRIATE);
+                return null;
+            }
+            int score = candidate.getPriority(currentActivity, previousActivities, userProfile, now, historyIndex)
+                + acceptanceStatistics.getPriorityBonus(userProfile.getId(), candidate.getId(), currentActivity,
+                                                        now.getHour(), maxBonus);
+            trace.stage(DecisionTrace.Stage.SCORING, start);
+            trace.score(candidate.getId(), score);
+            return new ScoredProposal(candidate, score);
+        };
         
-        // Préparer le contenu de la proposition
-        bestProposal.prepare(currentActivity, userProfile, now);
+        // Les vérifications peuvent interroger des sources externes : en parallèle et
+        // avec échéance, une proposition lente est écartée pour ce cycle
+        if (evaluationExecutor != null) {
+            List<ScoredProposal> results = evaluationExecutor.evaluateAll(candidates, evaluation);
+            for (int i = 0; i < results.size(); i++) {
+                ScoredProposal entry = results.get(i);
+                if (entry != null) {
+                    scored.add(entry);
+                } else if (!trace.isRejected(candidates.get(i).getId())) {
+                    trace.reject(candidates.get(i).getId(), DecisionTrace.Rejection.DROPPED);
+                }
+            }
+        } else {
+            for (Proposal candidate : candidates) {
+                ScoredProposal entry = evaluation.apply(candidate);
+                if (entry != null) {
+                    scored.add(entry);
+                }
+            }
+        }
         
-        return bestProposal;
+        // Préparer le contenu de la meilleure proposition ; si sa préparation dépasse
+        // l'échéance, la suivante par priorité est essayée
+        stageStart = System.nanoTime();
+        List<ScoredProposal> remaining = new ArrayList<>(scored);
+        ScoredProposal best = selectBest(remaining);
+        while (best != null) {
+            Proposal bestProposal = best.proposal();
+            PreparedProposal prepared = preparedCache.get(userProfile.getId(), bestProposal.getId(), currentActivity, nowMillis);
+            if (prepared == null) {
+                prepared = prepareWithDeadline(bestProposal, currentActivity, userProfile, now);
+            }
+            
+            if (prepared != null) {
+                trace.stage(DecisionTrace.Stage.PREPARE, stageStart);
+                for (ScoredProposal other : remaining) {
+                    if (other != best) {
+                        trace.reject(other.proposalId(), DecisionTrace.Rejection.LOWER_PRIORITY);
+                    }
+                }
+                LOGGER.log(Level.INFO, "Proposition sélectionnée: {0} (priorité {1}, {2} candidates)",
+                           new Object[]{bestProposal.getId(), best.score(), scored.size()});
+                LOGGER.log(Level.FINE, "Priorités des candidates : {0}", scored);
+                return prepared;
+            }
+            trace.reject(best.proposalId(), DecisionTrace.Rejection.PREPARE_FAILED);
+            remaining.remove(best);
+            best = selectBest(remaining);
+        }
+        trace.stage(DecisionTrace.Stage.PREPARE, stageStart);
+        
+        LOGGER.log(Level.INFO, "Aucune proposition appropriée trouvée pour l'activité {0}", currentActivity);
+        return null;
+    }
+    
+    private PreparedProposal prepareWithDeadline(Proposal proposal, Activity currentActivity,
+                                                 UserProfile userProfile, LocalDateTime now) {
+        return evaluationExecutor != null
+            ? evaluationExecutor.callWithDeadline(proposal, () -> proposal.prepare(currentActivity, userProfile, now))
+            : proposal.prepare(currentActivity, userProfile, now);
     }
     
     /**
-     * Vérifie si une proposition est autorisée pour une activité donnée
-     * selon la configuration.
+     * Prépare à l'avance le contenu des propositions les plus probables pour une
+     * activité : les candidates sous leurs limites, appropriées maintenant et de plus
+     * haute priorité. La vérification suivante trouvera leur contenu en cache.
+     * Seules les propositions coûteuses (coût estimé supérieur à 1, par exemple une
+     * source externe) sont préchargées : préparer à l'avance un calcul local ne fait
+     * rien gagner et figerait un contenu rendu avec l'heure du préchargement.
+     * L'historique des activités n'est pas connu ici : l'appropriation est évaluée
+     * sans lui, ce qui suffit pour deviner les propositions probables.
      * 
-     * @param proposal La proposition à vérifier
-     * @param activity L'activité actuelle
-     * @return true si la proposition est autorisée, false sinon
+     * @param currentActivity Nouvelle activité de l'utilisateur
+     * @param userProfile Profil de l'utilisateur
+     * @return Nombre de contenus préparés
      */
-    private boolean isProposalAllowedForActivity(Proposal proposal, Activity activity) {
-        List<String> allowedProposalTypes = configManager.getStringList(
-            "proposals.activityMapping." + activity.name()
-        );
-        
-        // Si la liste est vide pour cette activité, aucune proposition n'est autorisée
-        if (allowedProposalTypes.isEmpty()) {
-            return false;
+    public int prefetch(Activity currentActivity, UserProfile userProfile) {
+        if (!preparedCache.isEnabled() || currentActivity == Activity.UNKNOWN || !currentActivity.allowsProposals()) {
+            return 0;
         }
         
-        // Vérifier si le type de proposition est autorisé directement ou via un préfixe
-        String proposalId = proposal.getId();
-        for (String allowedType : allowedProposalTypes) {
-            if (allowedType.equals(proposalId) || 
-                (allowedType.contains(".") && proposalId.startsWith(allowedType.split("\\.")[0]))) {
-                return true;
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = DateTimeUtil.toTimestamp(now);
+        ProposalHistoryIndex historyIndex = historyIndexFor(userProfile.getId());
+        Map<LocalDateTime, Activity> noHistory = Map.of();
+        int maxBonus = learningMaxBonus;
+        
+        List<ScoredProposal> likely = new ArrayList<>();
+        for (RegisteredProposal candidate : routingTable.candidatesFor(currentActivity)) {
+            if (candidate.getEstimatedCost() <= 1) {
+                continue;
+            }
+            String type = candidate.getType();
+            if (isDailyLimitReached(historyIndex, type, now)
+                    || cooldownTracker.isCoolingDown(userProfile.getId(), type, nowMillis)
+                    || preparedCache.contains(userProfile.getId(), type, currentActivity, nowMillis)) {
+                continue;
+            }
+            Proposal proposal = candidate.get();
+            if (proposal.isAppropriate(currentActivity, noHistory, userProfile, now, historyIndex)) {
+                likely.add(new ScoredProposal(proposal,
+                    proposal.getPriority(currentActivity, noHistory, userProfile, now, historyIndex)
+                    + acceptanceStatistics.getPriorityBonus(userProfile.getId(), type, currentActivity,
+                                                            now.getHour(), maxBonus)));
             }
         }
+        likely.sort(Comparator.comparingInt(ScoredProposal::score).reversed());
         
-        return false;
+        int prefetched = 0;
+        for (ScoredProposal entry : likely.subList(0, Math.min(prefetchMaxCandidates, likely.size()))) {
+            PreparedProposal prepared = prepareWithDeadline(entry.proposal(), currentActivity, userProfile, now);
+            if (prepared != null) {
+                preparedCache.put(userProfile.getId(), currentActivity, prepared, now);
+                prefetched++;
+            }
+        }
+        LOGGER.log(Level.FINE, "{0} propositions préchargées pour l''activité {1}",
+                   new Object[]{prefetched, currentActivity});
+        return prefetched;
+    }
+    
+    /**
+     * Choisit la candidate de plus haute priorité en un seul parcours. À priorité égale,
+     * la première proposition enregistrée l'emporte.
+     */
+    private static ScoredProposal selectBest(List<ScoredProposal> scored) {
+        ScoredProposal best = null;
+        for (ScoredProposal entry : scored) {
+            if (best == null || entry.score() > best.score()) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Décrit le catalogue des propositions sans en créer.
+     * 
+     * @return Métadonnées et état d'instanciation de chaque type de proposition
+     */
+    public List<Map<String, Object>> getCatalog() {
+        return registry.getCatalog();
+    }
+    
+    /**
+     * Obtient les métriques de l'évaluation parallèle des propositions.
+     * 
+     * @return Map des latences et dépassements d'échéance par proposition (absentes si
+     *         l'évaluation se fait sur le thread appelant) et des accès au cache de décisions
+     */
+    public Map<String, Object> getEvaluationMetrics() {
+        Map<String, Object> metrics = evaluationExecutor != null ? new HashMap<>(evaluationExecutor.getMetrics()) : new HashMap<>();
+        metrics.put("decisionCache", Map.of(
+            "timeBucketMillis", decisionTimeBucketMillis,
+            "hits", decisionCacheHits.sum(),
+            "misses", decisionCacheMisses.sum()
+        ));
+        metrics.put("decisionTraces", traces.getStageAverages());
+        metrics.put("prefetch", preparedCache.getMetrics());
+        return metrics;
+    }
+    
+    /**
+     * Obtient les dernières traces de décision.
+     * 
+     * @param limit Nombre maximal de traces
+     * @return Les traces, de la plus récente à la plus ancienne
+     */
+    public List<DecisionTrace> getRecentTraces(int limit) {
+        return traces.getRecent(limit);
+    }
+    
+    /**
+     * Obtient les priorités calculées lors de la dernière évaluation, dans l'ordre
+     * des propositions enregistrées.
+     * 
+     * @return Liste immuable des candidates appropriées et de leur priorité
+     */
+    public List<ScoredProposal> getLastCandidateScores() {
+        return lastCandidateScores;
     }
     
     /**
      * Vérifie si la fréquence quotidienne de propositions a été atteinte
      * pour un type de proposition donné.
      * 
+     * @param historyIndex Index de l'historique de l'utilisateur
      * @param proposalType Type de proposition à vérifier
-     * @param proposalHistory Historique des propositions
+     * @param now Date et heure actuelles
      * @return true si la limite quotidienne est atteinte, false sinon
      */
-    private boolean isDailyLimitReached(String proposalType, List<ProposalHistory> proposalHistory) {
-        // Récupérer la limite quotidienne depuis la configuration
-        int maxPerDay = configManager.getInt("proposals.daily." + proposalType + ".maxPerDay", 0);
-        if (maxPerDay <= 0) {
+    private boolean isDailyLimitReached(ProposalHistoryIndex historyIndex, String proposalType, LocalDateTime now) {
+        // Limite quotidienne lue depuis la configuration au dernier rechargement
+        Integer maxPerDay = dailyLimits.get(proposalType);
+        if (maxPerDay == null) {
             return false; // Pas de limite définie
         }
         
-        // Compter le nombre de propositions du même type aujourd'hui
-        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        long todayCount = proposalHistory.stream()
-            .filter(p -> p.getProposalType().equals(proposalType))
-            .filter(p -> p.getTimestamp().isAfter(startOfDay))
-            .count();
+        // Compter le nombre de propositions du même type aujourd'hui, cumuls quotidiens compris
+        long startOfDay = DateTimeUtil.toTimestamp(now.toLocalDate().atStartOfDay());
+        int todayCount = historyIndex.countToday(proposalType, startOfDay);
         
         return todayCount >= maxPerDay;
     }
@@ -149,17 +555,124 @@ public class ProposalEngine {
     /**
      * Enregistre une proposition qui a été présentée à l'utilisateur.
      * 
-     * @param proposal La proposition qui a été présentée
+     * @param proposal La proposition préparée qui a été présentée
      * @param activity L'activité de l'utilisateur lors de la présentation
+     * @param userProfile Profil de l'utilisateur à qui la proposition a été présentée
      */
-    public void recordProposal(Proposal proposal, Activity activity) {
+    public void recordProposal(PreparedProposal proposal, Activity activity, UserProfile userProfile) {
         ProposalHistory history = new ProposalHistory();
-        history.setProposalType(proposal.getId());
+        history.setUserId(userProfile.getId());
+        history.setProposalType(proposal.proposalId());
         history.setTimestamp(LocalDateTime.now());
         history.setActivityType(activity.name());
-        history.setTitle(proposal.getTitle());
+        history.setTitle(proposal.title());
+        
+        long shownAtMillis = DateTimeUtil.toTimestamp(history.getTimestamp());
+        historyIndexFor(history.getUserId()).record(history.getProposalType(), shownAtMillis);
+        cooldownTracker.record(history.getUserId(), history.getProposalType(), shownAtMillis);
+        preparedCache.invalidate(history.getUserId(), history.getProposalType());
+        acceptanceStatistics.recordShown(history.getUserId(), history.getProposalType(), activity, history.getTimestamp());
+        lastPresented.put(history.getUserId(), history);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(history);
+        } else {
+            proposalRepository.saveProposal(history);
+            applyPendingFeedback(List.of(history));
+        }
+        LOGGER.log(Level.INFO, "Proposition enregistrée: {0}", proposal.proposalId());
+    }
+    
+    /**
+     * Enregistre le retour de l'utilisateur sur la dernière proposition qui lui a été
+     * présentée, et met à jour son taux d'acceptation. Une proposition complétée est
+     * aussi comptée comme acceptée ; une proposition refusée reste comptée comme
+     * présentée sans acceptation.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param feedback Retour de l'utilisateur
+     * @return La proposition concernée, ou null si aucune n'a été présentée
+     */
+    public ProposalHistory recordFeedback(long userId, ProposalFeedback feedback) {
+        ProposalHistory history = feedback == ProposalFeedback.COMPLETED
+            ? lastPresented.remove(userId)
+            : lastPresented.get(userId);
+        if (history == null) {
+            return null;
+        }
         
-        proposalDAO.saveProposal(history);
-        LOGGER.log(Level.INFO, "Proposition enregistrée: {0}", proposal.getId());
+        if (feedback == ProposalFeedback.DISMISSED) {
+            lastPresented.remove(userId, history);
+            LOGGER.log(Level.INFO, "Proposition refusée: {0}", history.getProposalType());
+            return history;
+        }
+        
+        // Tant que l'écriture n'a pas attribué d'ID, la ligne a pu être écrite avec l'ancien
+        // état : le retour reste en attente et sera reporté une fois l'ID connu
+        boolean newlyAccepted;
+        Long id;
+        synchronized (history) {
+            newlyAccepted = !history.isAccepted();
+            history.setAccepted(true);
+            if (feedback == ProposalFeedback.COMPLETED) {
+                history.setCompletionTime(LocalDateTime.now());
+            }
+            id = history.getId();
+            if (id == null) {
+                pendingFeedback.add(history);
+            }
+        }
+        if (id != null) {
+            if (newlyAccepted) {
+                proposalRepository.markProposalAsAccepted(id);
+            }
+            if (feedback == ProposalFeedback.COMPLETED) {
+                proposalRepository.markProposalAsCompleted(id);
+            }
+        }
+        
+        if (newlyAccepted) {
+            acceptanceStatistics.recordAccepted(history.getUserId(), history.getProposalType(),
+                                                Activity.valueOf(history.getActivityType()), history.getTimestamp());
+        }
+        LOGGER.log(Level.INFO, "Proposition {0}: {1}",
+                   new Object[]{feedback == ProposalFeedback.COMPLETED ? "complétée" : "acceptée", history.getProposalType()});
+        return history;
+    }
+    
+    /**
+     * Reporte sur les propositions qui viennent d'être écrites les retours arrivés
+     * avant que leur ID ne soit connu.
+     * 
+     * @param saved Propositions écrites, avec leur ID
+     */
+    private void applyPendingFeedback(List<ProposalHistory> saved) {
+        if (pendingFeedback.isEmpty()) {
+            return;
+        }
+        for (ProposalHistory history : saved) {
+            Long id;
+            boolean completed;
+            synchronized (history) {
+                if (history.getId() == null || !pendingFeedback.remove(history)) {
+                    continue;
+                }
+                id = history.getId();
+                completed = history.getCompletionTime() != null;
+            }
+            proposalRepository.markProposalAsAccepted(id);
+            if (completed) {
+                proposalRepository.markProposalAsCompleted(id);
+            }
+            LOGGER.log(Level.FINE, "Retour en attente appliqué à la proposition {0}", id);
+        }
+    }
+    
+    /**
+     * Obtient le modèle des taux d'acceptation, pour son chargement et son enregistrement.
+     * 
+     * @return Le modèle des taux d'acceptation
+     */
+    public AcceptanceStatistics getAcceptanceStatistics() {
+        return acceptanceStatistics;
     }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.angel.intelligence;
+
+import com.angel.intelligence.proposals.Proposal;
+import com.angel.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exécute les vérifications des propositions candidates en parallèle, sur un pool
+ * de threads dédié et borné, avec une échéance par proposition.
+ *
+ * Une proposition qui ne répond pas avant l'échéance (source de contenu lente) est
+ * écartée pour cette évaluation au lieu de bloquer tout le cycle ; sa tâche est
+ * interrompue. Si la file du pool est pleine, la proposition est également écartée.
+ * Les latences, dépassements d'échéance et erreurs sont comptés par proposition.
+ */
+public class ProposalEvaluationExecutor {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ProposalEvaluationExecutor.class);
+
+    private static final class ProposalStats {
+        final LongAdder completed = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final long deadlineNanos;
+    private final Map<String, ProposalStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Crée le pool d'évaluation.
+     *
+     * @param threads Nombre de threads d'évaluation
+     * @param queueCapacity Nombre maximal de tâches en attente
+     * @param deadlineMillis Échéance accordée à chaque proposition, en millisecondes
+     */
+    public ProposalEvaluationExecutor(int threads, int queueCapacity, long deadlineMillis) {
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                Thread thread = new Thread(r, "angel-proposal-eval-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    /**
+     * Applique une tâche à chaque proposition en parallèle et attend les résultats
+     * jusqu'à l'échéance. Toutes les tâches partagent la même échéance, comptée à
+     * partir de leur soumission.
+     *
+     * @param proposals Propositions à évaluer
+     * @param task Tâche d'évaluation ; peut retourner null pour écarter la proposition
+     * @return Les résultats dans l'ordre des propositions, null pour une proposition
+     *         écartée, en retard ou en erreur
+     */
+    public <T> List<T> evaluateAll(List<Proposal> proposals, Function<Proposal, T> task) {
+        long deadline = System.nanoTime() + deadlineNanos;
+
+        List<Future<T>> futures = new ArrayList<>(proposals.size());
+        for (Proposal proposal : proposals) {
+            futures.add(submit(proposal, () -> task.apply(proposal)));
+        }
+
+        List<T> results = new ArrayList<>(proposals.size());
+        for (int i = 0; i < proposals.size(); i++) {
+            Future<T> future = futures.get(i);
+            results.add(future == null ? null : await(proposals.get(i), future, deadline));
+        }
+        return results;
+    }
+
+    /**
+     * Exécute une tâche pour une proposition avec sa propre échéance.
+     *
+     * @param proposal La proposition concernée
+     * @param task La tâche à exécuter (par exemple la préparation du contenu)
+     * @return Le résultat de la tâche, ou null si elle a dépassé l'échéance ou échoué
+     */
+    public <T> T callWithDeadline(Proposal proposal, Supplier<T> task) {
+        Future<T> future = submit(proposal, task::get);
+        return future == null ? null : await(proposal, future, System.nanoTime() + deadlineNanos);
+    }
+
+    private <T> Future<T> submit(Proposal proposal, Callable<T> task) {
+        ProposalStats proposalStats = statsFor(proposal.getId());
+        try {
+            return executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    proposalStats.completed.increment();
+                    proposalStats.totalNanos.add(elapsed);
+                    proposalStats.maxNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            proposalStats.rejected.increment();
+            dropped.increment();
+            LOGGER.log(Level.WARNING, "File d''évaluation pleine, proposition {0} écartée", proposal.getId());
+            return null;
+        }
+    }
+
+    private <T> T await(Proposal proposal, Future<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            statsFor(proposal.getId()).timeouts.increment();
+            dropped.increment();
+            LOGGER.log(Level.WARNING, "Proposition {0} écartée : échéance de {1}ms dépassée",
+                       new Object[]{proposal.getId(), TimeUnit.NANOSECONDS.toMillis(deadlineNanos)});
+        } catch (ExecutionException e) {
+            statsFor(proposal.getId()).failures.increment();
+            dropped.increment();
+            LOGGER.log(Level.WARNING, "Erreur lors de l'évaluation de la proposition " + proposal.getId(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Obtient le nombre total de propositions écartées faute de réponse (échéance
+     * dépassée, file pleine ou erreur), toutes propositions confondues.
+     *
+     * @return Nombre de propositions écartées depuis le démarrage
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private ProposalStats statsFor(String proposalId) {
+        return stats.computeIfAbsent(proposalId, id -> new ProposalStats());
+    }
+
+    /**
+     * Obtient les métriques d'évaluation par proposition.
+     *
+     * @return Map contenant, pour chaque proposition, le nombre d'évaluations, la latence
+     *         moyenne et maximale, les dépassements d'échéance, les rejets et les erreurs
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> perProposal = new HashMap<>();
+        stats.forEach((id, s) -> {
+            long completed = s.completed.sum();
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("evaluations", completed);
+            entry.put("averageLatencyMillis", completed == 0 ? 0.0 : s.totalNanos.sum() / (double) completed / 1_000_000.0);
+            entry.put("maxLatencyMillis", s.maxNanos.get() / 1_000_000.0);
+            entry.put("timeouts", s.timeouts.sum());
+            entry.put("rejected", s.rejected.sum());
+            entry.put("failures", s.failures.sum());
+            perProposal.put(id, entry);
+        });
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("threads", executor.getMaximumPoolSize());
+        metrics.put("deadlineMillis", TimeUnit.NANOSECONDS.toMillis(deadlineNanos));
+        metrics.put("activeTasks", executor.getActiveCount());
+        metrics.put("queuedTasks", executor.getQueue().size());
+        metrics.put("proposals", perProposal);
+        return metrics;
+    }
+
+    /**
+     * Arrête le pool ; les évaluations en cours sont interrompues.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
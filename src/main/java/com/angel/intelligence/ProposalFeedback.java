@@ -0,0 +1,29 @@
+package com.angel.intelligence;
+
+/**
+ * Retour de l'utilisateur sur une proposition présentée.
+ */
+public enum ProposalFeedback {
+    ACCEPTED,
+    COMPLETED,
+    DISMISSED;
+
+    /**
+     * Convertit une valeur reçue par l'API ({@code accepted}, {@code completed},
+     * {@code dismissed}), sans tenir compte de la casse.
+     *
+     * @param value La valeur à convertir
+     * @return Le retour correspondant, ou null si la valeur est inconnue
+     */
+    public static ProposalFeedback fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (ProposalFeedback feedback : values()) {
+            if (feedback.name().equalsIgnoreCase(value.trim())) {
+                return feedback;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,262 @@
+package com.angel.intelligence;
+
+import com.angel.model.ProposalHistory;
+import com.angel.util.DateTimeUtil;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index en mémoire de l'historique récent des propositions, par type de proposition.
+ *
+ * Chaque type conserve un tableau trié de timestamps primitifs (millisecondes depuis
+ * l'epoch). Les entrées plus anciennes que la fenêtre de rétention sont évincées en
+ * avançant simplement le début du tableau. Les questions posées à chaque cycle de
+ * propositions (nombre depuis un instant, dernière présentation, présentation dans
+ * un intervalle) sont résolues en O(1) ou O(log n) sans accès à la base de données.
+ */
+public class ProposalHistoryIndex {
+
+    /** Fenêtre de rétention par défaut : 24 heures. */
+    public static final long DEFAULT_RETENTION_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final long retentionMillis;
+    private final Map<String, TimeSeries> seriesByType = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile DailySeed dailySeed;
+
+    /**
+     * Cumuls du jour lus dans la table de cumuls quotidiens au chargement de l'index.
+     */
+    private record DailySeed(long dayStartMillis, long seededAtMillis, Map<String, Integer> counts) {}
+
+    /**
+     * Crée un index avec la fenêtre de rétention par défaut (24h).
+     */
+    public ProposalHistoryIndex() {
+        this(DEFAULT_RETENTION_MILLIS);
+    }
+
+    /**
+     * Crée un index avec une fenêtre de rétention donnée.
+     *
+     * @param retentionMillis Durée de conservation des entrées en millisecondes
+     */
+    public ProposalHistoryIndex(long retentionMillis) {
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Charge l'index à partir d'un historique de propositions (typiquement les
+     * dernières 24 heures lues en base au démarrage).
+     *
+     * @param history Historique des propositions, dans n'importe quel ordre
+     */
+    public void load(List<ProposalHistory> history) {
+        for (ProposalHistory proposal : history) {
+            record(proposal.getProposalType(), DateTimeUtil.toTimestamp(proposal.getTimestamp()));
+        }
+    }
+
+    /**
+     * Enregistre la présentation d'une proposition.
+     *
+     * @param proposalType Type de proposition
+     * @param timestampMillis Instant de présentation en millisecondes depuis l'epoch
+     */
+    public void record(String proposalType, long timestampMillis) {
+        TimeSeries series = seriesByType.computeIfAbsent(proposalType, k -> new TimeSeries());
+        series.add(timestampMillis, timestampMillis - retentionMillis);
+        version.incrementAndGet();
+    }
+    
+    /**
+     * Obtient la version de l'index, incrémentée à chaque présentation enregistrée.
+     * L'éviction des entrées expirées ne change pas la version.
+     *
+     * @return Version de l'index
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Compte les propositions d'un type présentées depuis un instant donné.
+     *
+     * @param proposalType Type de proposition
+     * @param fromMillis Instant de début inclus, en millisecondes depuis l'epoch
+     * @return Nombre de propositions présentées depuis cet instant
+     */
+    public int countSince(String proposalType, long fromMillis) {
+        TimeSeries series = seriesByType.get(proposalType);
+        return series == null ? 0 : series.countSince(fromMillis);
+    }
+
+    /**
+     * Initialise les compteurs du jour à partir des cumuls quotidiens persistés, qui
+     * restent exacts quand l'historique détaillé a été purgé ou compacté.
+     *
+     * @param dayStartMillis Début du jour des cumuls, en millisecondes depuis l'epoch
+     * @param seededAtMillis Instant de lecture des cumuls
+     * @param counts Nombre de présentations du jour par type de proposition
+     */
+    public void seedDailyCounts(long dayStartMillis, long seededAtMillis, Map<String, Integer> counts) {
+        dailySeed = new DailySeed(dayStartMillis, seededAtMillis, Map.copyOf(counts));
+    }
+
+    /**
+     * Compte les propositions d'un type présentées depuis le début du jour. Le jour des
+     * cumuls persistés, le plus grand des deux comptes est retenu : le cumul lu au
+     * chargement augmenté des présentations enregistrées depuis, ou l'historique indexé.
+     *
+     * @param proposalType Type de proposition
+     * @param dayStartMillis Début du jour courant, en millisecondes depuis l'epoch
+     * @return Nombre de propositions présentées aujourd'hui
+     */
+    public int countToday(String proposalType, long dayStartMillis) {
+        int indexed = countSince(proposalType, dayStartMillis);
+        DailySeed seed = dailySeed;
+        if (seed == null || seed.dayStartMillis() != dayStartMillis) {
+            return indexed;
+        }
+        int seeded = seed.counts().getOrDefault(proposalType, 0) + countSince(proposalType, seed.seededAtMillis() + 1);
+        return Math.max(indexed, seeded);
+    }
+
+    /**
+     * Obtient l'instant de dernière présentation d'un type de proposition.
+     *
+     * @param proposalType Type de proposition
+     * @return Timestamp en millisecondes, ou -1 si aucune présentation n'est indexée
+     */
+    public long lastShownAt(String proposalType) {
+        TimeSeries series = seriesByType.get(proposalType);
+        return series == null ? -1 : series.last();
+    }
+
+    /**
+     * Vérifie si une proposition du type donné a été présentée moins de
+     * {@code windowMillis} avant l'instant donné.
+     *
+     * @param proposalType Type de proposition
+     * @param nowMillis Instant de référence en millisecondes depuis l'epoch
+     * @param windowMillis Largeur de l'intervalle en millisecondes
+     * @return true si une présentation tombe dans l'intervalle
+     */
+    public boolean anyWithin(String proposalType, long nowMillis, long windowMillis) {
+        long last = lastShownAt(proposalType);
+        return last >= 0 && nowMillis - last < windowMillis;
+    }
+
+    /**
+     * Évince toutes les entrées antérieures à la fenêtre de rétention.
+     *
+     * @param nowMillis Instant de référence en millisecondes depuis l'epoch
+     */
+    public void evictExpired(long nowMillis) {
+        long cutoff = nowMillis - retentionMillis;
+        for (TimeSeries series : seriesByType.values()) {
+            series.evictBefore(cutoff);
+        }
+    }
+
+    /**
+     * Obtient le nombre total d'entrées indexées, tous types confondus.
+     *
+     * @return Nombre d'entrées
+     */
+    public int size() {
+        int total = 0;
+        for (TimeSeries series : seriesByType.values()) {
+            total += series.size();
+        }
+        return total;
+    }
+
+    /**
+     * Série triée de timestamps pour un type de proposition. Les entrées valides
+     * occupent l'intervalle [head, tail) du tableau.
+     */
+    private static final class TimeSeries {
+
+        private long[] timestamps = new long[16];
+        private int head = 0;
+        private int tail = 0;
+
+        synchronized void add(long timestamp, long evictionCutoff) {
+            evictBefore(evictionCutoff);
+            if (timestamp < evictionCutoff) {
+                return;
+            }
+            if (tail == timestamps.length) {
+                makeRoom();
+            }
+            // Les insertions arrivent presque toujours dans l'ordre chronologique
+            int position = tail;
+            while (position > head && timestamps[position - 1] > timestamp) {
+                position--;
+            }
+            System.arraycopy(timestamps, position, timestamps, position + 1, tail - position);
+            timestamps[position] = timestamp;
+            tail++;
+        }
+
+        synchronized int countSince(long fromMillis) {
+            return tail - lowerBound(fromMillis);
+        }
+
+        synchronized long last() {
+            return tail > head ? timestamps[tail - 1] : -1;
+        }
+
+        synchronized void evictBefore(long cutoff) {
+            if (head < tail && timestamps[head] < cutoff) {
+                head = lowerBound(cutoff);
+            }
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+        }
+
+        synchronized int size() {
+            return tail - head;
+        }
+
+        /**
+         * Premier indice dont le timestamp est supérieur ou égal à la valeur donnée.
+         */
+        private int lowerBound(long value) {
+            int low = head;
+            int high = tail;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Récupère l'espace libéré par l'éviction, ou agrandit le tableau.
+         */
+        private void makeRoom() {
+            int size = tail - head;
+            if (head > 0 && size < timestamps.length / 2) {
+                System.arraycopy(timestamps, head, timestamps, 0, size);
+            } else {
+                long[] grown = Arrays.copyOf(timestamps, timestamps.length * 2);
+                System.arraycopy(grown, head, grown, 0, size);
+                timestamps = grown;
+            }
+            head = 0;
+            tail = size;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.angel.intelligence;
+
+import com.angel.model.Activity;
+import com.angel.model.ActivityChanged;
+import com.angel.model.UserProfile;
+import com.angel.util.LogUtil;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prépare en arrière-plan le contenu des propositions probables dès qu'une nouvelle
+ * activité est détectée, pendant le délai d'anti-rebond du {@link ProposalTrigger}.
+ * Quand la vérification arrive, la préparation de la proposition retenue est alors
+ * une lecture de cache au lieu d'un appel à une source externe.
+ *
+ * Les préchargements tournent sur un thread dédié de basse priorité ; un changement
+ * d'activité arrivé pendant un préchargement remplace celui qui attendait encore.
+ */
+public class ProposalPrefetcher implements Consumer<ActivityChanged> {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ProposalPrefetcher.class);
+
+    private final ProposalEngine proposalEngine;
+    private final LongFunction<UserProfile> userProfiles;
+    private final ExecutorService executor;
+    // Dernier changement en attente ; les précédents non traités sont abandonnés
+    private final AtomicReference<ActivityChanged> pending = new AtomicReference<>();
+
+    /**
+     * Crée le préchargeur.
+     *
+     * @param proposalEngine Moteur qui évalue et prépare les propositions
+     * @param userProfiles Profil de l'utilisateur d'un ID
+     */
+    public ProposalPrefetcher(ProposalEngine proposalEngine, LongFunction<UserProfile> userProfiles) {
+        this.proposalEngine = proposalEngine;
+        this.userProfiles = userProfiles;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "angel-proposal-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @Override
+    public void accept(ActivityChanged event) {
+        Activity activity = event.current();
+        if (activity == Activity.UNKNOWN || !activity.allowsProposals()) {
+            return;
+        }
+        if (pending.getAndSet(event) != null) {
+            return; // Une tâche est déjà planifiée et lira ce changement
+        }
+        try {
+            executor.execute(this::prefetchPending);
+        } catch (RejectedExecutionException e) {
+            pending.set(null);
+        }
+    }
+
+    private void prefetchPending() {
+        ActivityChanged event = pending.getAndSet(null);
+        if (event == null) {
+            return;
+        }
+        try {
+            UserProfile userProfile = userProfiles.apply(event.userId());
+            if (userProfile != null) {
+                proposalEngine.prefetch(event.current(), userProfile);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Erreur lors du préchargement des propositions", e);
+        }
+    }
+
+    /**
+     * Arrête le préchargement ; un préchargement en cours est interrompu.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
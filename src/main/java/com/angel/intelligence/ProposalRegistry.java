@@ -0,0 +1,142 @@
+package com.angel.intelligence;
+
+import com.angel.config.ConfigManager;
+import com.angel.intelligence.proposals.Proposal;
+import com.angel.intelligence.proposals.ProposalProvider;
+import com.angel.intelligence.proposals.RuleProposal;
+import com.angel.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Catalogue des types de propositions disponibles.
+ *
+ * Les fournisseurs sont découverts par {@link ServiceLoader} ; seules leurs
+ * métadonnées sont lues au démarrage. Chaque proposition est créée la première fois
+ * qu'elle est candidate pour une activité, si bien que le coût de démarrage et la
+ * mémoire au repos ne dépendent pas de la taille du catalogue.
+ *
+ * Les règles déclarées sous {@code proposals.rules.*} sont ajoutées après les
+ * fournisseurs, et recompilées par {@link #reloadRules()} quand la configuration
+ * est rechargée.
+ */
+public final class ProposalRegistry {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ProposalRegistry.class);
+
+    private final List<RegisteredProposal> providedProposals;
+    // Null pour un catalogue construit sans règles de configuration
+    private final ConfigManager rulesConfig;
+    // Fournisseurs puis règles ; remplacée en bloc quand les règles sont recompilées
+    private volatile List<RegisteredProposal> proposals;
+
+    private ProposalRegistry(List<RegisteredProposal> providedProposals, ConfigManager rulesConfig) {
+        this.providedProposals = List.copyOf(providedProposals);
+        this.rulesConfig = rulesConfig;
+        this.proposals = this.providedProposals;
+    }
+
+    /**
+     * Découvre les fournisseurs déclarés dans
+     * {@code META-INF/services/com.angel.intelligence.proposals.ProposalProvider}.
+     *
+     * @param configManager Gestionnaire de configuration transmis aux propositions créées
+     * @return Le catalogue, dans l'ordre de déclaration des fournisseurs
+     */
+    public static ProposalRegistry discover(ConfigManager configManager) {
+        List<RegisteredProposal> proposals = new ArrayList<>();
+        Set<String> types = new HashSet<>();
+        for (ProposalProvider provider : ServiceLoader.load(ProposalProvider.class)) {
+            if (!types.add(provider.getType())) {
+                LOGGER.log(Level.WARNING, "Type de proposition ''{0}'' déclaré plusieurs fois, fournisseur {1} ignoré",
+                           new Object[]{provider.getType(), provider.getClass().getName()});
+                continue;
+            }
+            proposals.add(new RegisteredProposal(provider.getType(), provider.getCompatibleActivities(),
+                                                 provider.getEstimatedCost(), () -> {
+                LOGGER.log(Level.INFO, "Création de la proposition {0}", provider.getType());
+                return provider.create(configManager);
+            }));
+        }
+        LOGGER.log(Level.INFO, "{0} types de propositions découverts", proposals.size());
+        ProposalRegistry registry = new ProposalRegistry(proposals, configManager);
+        registry.reloadRules();
+        return registry;
+    }
+
+    /**
+     * Recompile les règles de propositions depuis la configuration courante. Une règle
+     * portant le type d'un fournisseur est ignorée. Sans effet pour un catalogue
+     * construit par {@link #of(List)}.
+     */
+    public void reloadRules() {
+        if (rulesConfig == null) {
+            return;
+        }
+        Set<String> types = new HashSet<>();
+        for (RegisteredProposal proposal : providedProposals) {
+            types.add(proposal.getType());
+        }
+        List<RegisteredProposal> all = new ArrayList<>(providedProposals);
+        for (RuleProposal rule : RuleProposal.compileAll(rulesConfig)) {
+            if (!types.add(rule.getId())) {
+                LOGGER.log(Level.WARNING, "Règle ''{0}'' ignorée : ce type de proposition existe déjà", rule.getId());
+                continue;
+            }
+            all.add(RegisteredProposal.ofRule(rule));
+        }
+        proposals = List.copyOf(all);
+        LOGGER.log(Level.INFO, "{0} règles de propositions compilées", all.size() - providedProposals.size());
+    }
+
+    /**
+     * Crée un catalogue à partir de propositions déjà instanciées.
+     *
+     * @param proposals Les propositions disponibles
+     * @return Le catalogue, dans l'ordre de la liste
+     */
+    public static ProposalRegistry of(List<Proposal> proposals) {
+        List<RegisteredProposal> registered = new ArrayList<>(proposals.size());
+        for (Proposal proposal : proposals) {
+            registered.add(RegisteredProposal.of(proposal));
+        }
+        return new ProposalRegistry(registered, null);
+    }
+
+    /**
+     * Obtient les entrées du catalogue.
+     *
+     * @return Liste immuable, dans l'ordre d'enregistrement
+     */
+    public List<RegisteredProposal> getProposals() {
+        return proposals;
+    }
+
+    /**
+     * Décrit le catalogue sans créer de proposition.
+     *
+     * @return Pour chaque type : activités compatibles, coût estimé et état d'instanciation
+     */
+    public List<Map<String, Object>> getCatalog() {
+        List<RegisteredProposal> proposals = this.proposals;
+        List<Map<String, Object>> catalog = new ArrayList<>(proposals.size());
+        for (RegisteredProposal proposal : proposals) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("type", proposal.getType());
+            entry.put("compatibleActivities", proposal.getCompatibleActivities());
+            entry.put("estimatedCost", proposal.getEstimatedCost());
+            entry.put("instantiated", proposal.isInstantiated());
+            entry.put("declarative", proposal.isDeclarative());
+            catalog.add(entry);
+        }
+        return catalog;
+    }
+}
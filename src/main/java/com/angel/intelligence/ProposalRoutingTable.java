@@ -0,0 +1,93 @@
+package com.angel.intelligence;
+
+import com.angel.config.ConfigManager;
+import com.angel.model.Activity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Table immuable des propositions candidates pour chaque activité, compilée une fois
+ * à partir des propriétés {@code proposals.activity-mapping.*}.
+ *
+ * Une entrée de la configuration autorise une proposition si elle est égale à son
+ * identifiant, ou si elle contient un point et que son préfixe (avant le point) est
+ * un préfixe de l'identifiant ({@code media.music} autorise {@code media}). Une
+ * activité sans entrée, ou avec une liste vide, n'a aucun candidat. Une proposition
+ * n'est candidate que pour les activités déclarées compatibles par son fournisseur.
+ * Une règle de configuration n'est soumise qu'à ses propres activités.
+ */
+public final class ProposalRoutingTable {
+
+    private static final String MAPPING_PREFIX = "proposals.activity-mapping.";
+    private static final String LEGACY_MAPPING_PREFIX = "proposals.activityMapping.";
+
+    // Indexé par Activity.ordinal() : une seule lecture de tableau par évaluation
+    private final List<RegisteredProposal>[] candidates;
+
+    private ProposalRoutingTable(List<RegisteredProposal>[] candidates) {
+        this.candidates = candidates;
+    }
+
+    /**
+     * Compile la table de routage à partir de la configuration courante.
+     *
+     * @param configManager Gestionnaire de configuration
+     * @param registry Catalogue des propositions, dans leur ordre d'enregistrement
+     * @return La table compilée
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ProposalRoutingTable compile(ConfigManager configManager, ProposalRegistry registry) {
+        Activity[] activities = Activity.values();
+        List<RegisteredProposal>[] candidates = new List[activities.length];
+
+        for (Activity activity : activities) {
+            List<String> allowedTypes = allowedTypesFor(configManager, activity);
+            List<RegisteredProposal> allowed = new ArrayList<>();
+            for (RegisteredProposal proposal : registry.getProposals()) {
+                if (proposal.isCompatibleWith(activity)
+                        && (proposal.isDeclarative() || isAllowed(proposal.getType(), allowedTypes))) {
+                    allowed.add(proposal);
+                }
+            }
+            candidates[activity.ordinal()] = Collections.unmodifiableList(allowed);
+        }
+
+        return new ProposalRoutingTable(candidates);
+    }
+
+    /**
+     * Lit la liste des types autorisés pour une activité. La clé en kebab-case
+     * ({@code going-to-sleep}) est prioritaire ; l'ancienne clé ({@code GOING_TO_SLEEP})
+     * reste lue si elle est seule définie.
+     */
+    private static List<String> allowedTypesFor(ConfigManager configManager, Activity activity) {
+        String key = MAPPING_PREFIX + activity.name().toLowerCase().replace('_', '-');
+        if (configManager.hasProperty(key)) {
+            return configManager.getStringList(key);
+        }
+        return configManager.getStringList(LEGACY_MAPPING_PREFIX + activity.name());
+    }
+
+    private static boolean isAllowed(String proposalId, List<String> allowedTypes) {
+        for (String allowedType : allowedTypes) {
+            int dot = allowedType.indexOf('.');
+            if (allowedType.equals(proposalId)
+                    || (dot >= 0 && proposalId.startsWith(allowedType.substring(0, dot)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtient les propositions candidates pour une activité.
+     *
+     * @param activity L'activité actuelle
+     * @return Liste immuable des propositions autorisées, éventuellement vide
+     */
+    public List<RegisteredProposal> candidatesFor(Activity activity) {
+        return candidates[activity.ordinal()];
+    }
+}
@@ -0,0 +1,157 @@
+package com.angel.intelligence;
+
+import com.angel.model.Activity;
+import com.angel.model.ActivityChanged;
+import com.angel.util.LogUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Déclenche la recherche de propositions sur changement d'activité plutôt qu'à
+ * intervalle fixe.
+ *
+ * Chaque {@link ActivityChanged} planifie une vérification après un court délai
+ * d'anti-rebond : des changements rapprochés (détection hésitante) ne produisent
+ * qu'une seule vérification, sur la dernière activité. Une vérification périodique
+ * lente sert de filet de sécurité ; elle est sautée si une vérification a eu lieu
+ * depuis moins d'un intervalle. Les vérifications s'exécutent une à une sur un thread
+ * dédié : une évaluation lente ne retarde pas les autres tâches planifiées de
+ * l'application, comme l'interrogation de l'activité courante.
+ */
+public class ProposalTrigger implements Consumer<ActivityChanged> {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ProposalTrigger.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable check;
+    private final long debounceMillis;
+
+    private ScheduledFuture<?> pendingCheck;
+    private volatile long lastCheckAt = 0;
+    private volatile long safetyIntervalMillis = Long.MAX_VALUE;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder coalescedEvents = new LongAdder();
+    private final LongAdder eventChecks = new LongAdder();
+    private final LongAdder safetyChecks = new LongAdder();
+    private final LongAdder requestedChecks = new LongAdder();
+
+    /**
+     * Crée le déclencheur et son thread de vérification.
+     *
+     * @param check Vérification des propositions à déclencher
+     * @param debounceMillis Délai d'anti-rebond après un changement d'activité
+     */
+    public ProposalTrigger(Runnable check, long debounceMillis) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "angel-proposal-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.check = check;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Planifie la vérification périodique de secours.
+     *
+     * @param initialDelayMillis Délai avant la première vérification
+     * @param intervalMillis Intervalle entre deux vérifications de secours
+     */
+    public void start(long initialDelayMillis, long intervalMillis) {
+        this.safetyIntervalMillis = intervalMillis;
+        scheduler.scheduleWithFixedDelay(this::safetyTick, initialDelayMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reçoit un changement d'activité et planifie une vérification, en remplaçant
+     * celle encore en attente.
+     */
+    @Override
+    public void accept(ActivityChanged event) {
+        events.increment();
+        Activity activity = event.current();
+        boolean allowsProposals = activity != Activity.UNKNOWN && activity.allowsProposals();
+
+        synchronized (this) {
+            if (pendingCheck != null && pendingCheck.cancel(false)) {
+                coalescedEvents.increment();
+            }
+            try {
+                pendingCheck = allowsProposals
+                    ? scheduler.schedule(() -> runCheck(eventChecks), debounceMillis, TimeUnit.MILLISECONDS)
+                    : null;
+            } catch (RejectedExecutionException e) {
+                pendingCheck = null; // Déclencheur arrêté
+            }
+        }
+        LOGGER.log(Level.FINE, "Changement d''activité {0} -> {1}", new Object[]{event.previous(), activity});
+    }
+
+    /**
+     * Demande une vérification immédiate, par exemple à la détection du mot-clé. Elle
+     * s'exécute sur le thread de vérification, après celle éventuellement en cours.
+     */
+    public void requestNow() {
+        try {
+            scheduler.execute(() -> runCheck(requestedChecks));
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "Vérification demandée après l''arrêt du déclencheur");
+        }
+    }
+
+    private void safetyTick() {
+        if (System.currentTimeMillis() - lastCheckAt < safetyIntervalMillis) {
+            return;
+        }
+        runCheck(safetyChecks);
+    }
+
+    private void runCheck(LongAdder counter) {
+        // Un seul thread de vérification : les vérifications ne se chevauchent jamais, et
+        // une vérification longue ne bloque pas la réception des événements
+        lastCheckAt = System.currentTimeMillis();
+        counter.increment();
+        try {
+            check.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la vérification des propositions", e);
+        }
+    }
+
+    /**
+     * Arrête le déclencheur ; une vérification en cours est interrompue, celles en
+     * attente sont annulées.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Obtient les métriques de déclenchement.
+     *
+     * @return Map contenant le nombre d'événements reçus, regroupés par l'anti-rebond,
+     *         et de vérifications déclenchées par événement, par le filet de sécurité
+     *         ou à la demande
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("debounceMillis", debounceMillis);
+        metrics.put("activityChanges", events.sum());
+        metrics.put("coalescedChanges", coalescedEvents.sum());
+        metrics.put("eventChecks", eventChecks.sum());
+        metrics.put("safetyChecks", safetyChecks.sum());
+        metrics.put("requestedChecks", requestedChecks.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,108 @@
+package com.angel.intelligence;
+
+import com.angel.intelligence.proposals.Proposal;
+import com.angel.intelligence.proposals.RuleProposal;
+import com.angel.model.Activity;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Entrée du catalogue des propositions : les métadonnées d'un type de proposition
+ * et son instance, créée à la première demande. Une entrée déclarative provient
+ * d'une règle de configuration, qui déclare elle-même ses activités.
+ */
+public final class RegisteredProposal {
+
+    private final String type;
+    private final Set<Activity> compatibleActivities;
+    private final int estimatedCost;
+    private final Supplier<Proposal> factory;
+    private final boolean declarative;
+    private volatile Proposal instance;
+
+    RegisteredProposal(String type, List<Activity> compatibleActivities, int estimatedCost, Supplier<Proposal> factory) {
+        this(type, compatibleActivities, estimatedCost, factory, false);
+    }
+
+    private RegisteredProposal(String type, List<Activity> compatibleActivities, int estimatedCost,
+                               Supplier<Proposal> factory, boolean declarative) {
+        this.type = type;
+        this.compatibleActivities = compatibleActivities.isEmpty()
+            ? EnumSet.noneOf(Activity.class)
+            : EnumSet.copyOf(compatibleActivities);
+        this.estimatedCost = estimatedCost;
+        this.factory = factory;
+        this.declarative = declarative;
+    }
+
+    /**
+     * Crée une entrée pour une proposition déjà instanciée.
+     */
+    static RegisteredProposal of(Proposal proposal) {
+        RegisteredProposal registered = new RegisteredProposal(proposal.getId(), proposal.getCompatibleActivities(), 1,
+                                                               () -> proposal);
+        registered.instance = proposal;
+        return registered;
+    }
+
+    /**
+     * Crée une entrée pour une règle de proposition compilée depuis la configuration.
+     */
+    static RegisteredProposal ofRule(RuleProposal rule) {
+        RegisteredProposal registered = new RegisteredProposal(rule.getId(), rule.getCompatibleActivities(), 1,
+                                                               () -> rule, true);
+        registered.instance = rule;
+        return registered;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public boolean isCompatibleWith(Activity activity) {
+        return compatibleActivities.contains(activity);
+    }
+
+    public Set<Activity> getCompatibleActivities() {
+        return compatibleActivities;
+    }
+
+    public int getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public boolean isDeclarative() {
+        return declarative;
+    }
+
+    /**
+     * Indique si la proposition a déjà été créée.
+     *
+     * @return true si l'instance existe
+     */
+    public boolean isInstantiated() {
+        return instance != null;
+    }
+
+    /**
+     * Obtient la proposition, en la créant à la première demande.
+     *
+     * @return L'instance unique de la proposition
+     */
+    public Proposal get() {
+        Proposal proposal = instance;
+        if (proposal == null) {
+            synchronized (this) {
+                proposal = instance;
+                if (proposal == null) {
+                    proposal = factory.get();
+                    instance = proposal;
+                }
+            }
+        }
+        return proposal;
+    }
+}
@@ -0,0 +1,27 @@
+package com.angel.intelligence;
+
+import com.angel.intelligence.proposals.Proposal;
+
+/**
+ * Une proposition candidate et sa priorité, calculée une seule fois par évaluation.
+ *
+ * @param proposal La proposition candidate
+ * @param score Priorité retournée par {@link Proposal#getPriority}, augmentée du bonus
+ *              appris de {@link AcceptanceStatistics#getPriorityBonus}
+ */
+public record ScoredProposal(Proposal proposal, int score) {
+
+    /**
+     * Obtient l'identifiant de la proposition, pour les diagnostics.
+     *
+     * @return L'identifiant de la proposition
+     */
+    public String proposalId() {
+        return proposal.getId();
+    }
+
+    @Override
+    public String toString() {
+        return proposal.getId() + "=" + score;
+    }
+}
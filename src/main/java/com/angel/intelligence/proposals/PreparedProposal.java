@@ -0,0 +1,19 @@
+package com.angel.intelligence.proposals;
+
+/**
+ * Contenu d'une proposition préparé pour une évaluation donnée. Immuable : il peut
+ * être affiché, enregistré ou mis en cache sans copie, quel que soit le thread.
+ *
+ * @param proposalId Identifiant du type de proposition (ex: "weather")
+ * @param title Titre à afficher
+ * @param content Contenu détaillé
+ * @param avatarPrompt Texte que l'avatar dit pour présenter la proposition
+ * @param estimatedDuration Durée estimée en secondes
+ */
+public record PreparedProposal(
+    String proposalId,
+    String title,
+    String content,
+    String avatarPrompt,
+    int estimatedDuration
+) {}
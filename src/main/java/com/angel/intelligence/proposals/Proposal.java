@@ -1,8 +1,8 @@
 package com.angel.intelligence.proposals;
 
+import com.angel.intelligence.ProposalHistoryIndex;
 import com.angel.model.Activity;
 import com.angel.model.UserProfile;
-import com.angel.model.ProposalHistory;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,6 +11,11 @@ import java.util.Map;
 /**
  * Interface définissant le comportement commun à toutes les propositions
  * que le système peut faire à l'utilisateur.
+ * 
+ * Une implémentation est un évaluateur sans état : une seule instance est partagée
+ * entre les évaluations parallèles et entre les utilisateurs, elle ne doit donc
+ * conserver aucun état modifiable. Le contenu à présenter est produit par
+ * {@link #prepare} sous forme d'une {@link PreparedProposal} immuable.
  */
 public interface Proposal {
     
@@ -20,18 +25,6 @@ public interface Proposal {
      */
     String getId();
     
-    /**
-     * Retourne le titre de la proposition à afficher.
-     * @return Le titre de la proposition
-     */
-    String getTitle();
-    
-    /**
-     * Retourne le contenu détaillé de la proposition.
-     * @return Le contenu de la proposition
-     */
-    String getContent();
-    
     /**
      * Détermine si cette proposition est appropriée dans le contexte actuel.
      * 
@@ -39,7 +32,7 @@ public interface Proposal {
      * @param previousActivities Historique des activités récentes
      * @param userProfile Profil de l'utilisateur avec ses préférences
      * @param currentTime Date et heure actuelles
-     * @param proposalHistory Historique des propositions déjà faites
+     * @param proposalHistory Index de l'historique récent des propositions déjà faites
      * @return true si la proposition est appropriée, false sinon
      */
     boolean isAppropriate(
@@ -47,7 +40,7 @@ public interface Proposal {
         Map<LocalDateTime, Activity> previousActivities,
         UserProfile userProfile,
         LocalDateTime currentTime,
-        List<ProposalHistory> proposalHistory
+        ProposalHistoryIndex proposalHistory
     );
     
     /**
@@ -58,7 +51,7 @@ public interface Proposal {
      * @param previousActivities Historique des activités récentes
      * @param userProfile Profil de l'utilisateur avec ses préférences
      * @param currentTime Date et heure actuelles
-     * @param proposalHistory Historique des propositions déjà faites
+     * @param proposalHistory Index de l'historique récent des propositions déjà faites
      * @return Une valeur de priorité entre 0 et 100
      */
     int getPriority(
@@ -66,7 +59,7 @@ public interface Proposal {
         Map<LocalDateTime, Activity> previousActivities,
         UserProfile userProfile,
         LocalDateTime currentTime,
-        List<ProposalHistory> proposalHistory
+        ProposalHistoryIndex proposalHistory
     );
     
     /**
@@ -76,20 +69,9 @@ public interface Proposal {
      * @param currentActivity L'activité actuelle de l'utilisateur
      * @param userProfile Profil de l'utilisateur
      * @param currentTime Date et heure actuelles
+     * @return Le titre, le contenu, la phrase d'introduction de l'avatar et la durée estimée
      */
-    void prepare(Activity currentActivity, UserProfile userProfile, LocalDateTime currentTime);
-    
-    /**
-     * Génère une requête pour l'avatar qui présentera la proposition.
-     * @return Texte que l'avatar doit dire pour présenter la proposition
-     */
-    String generateAvatarPrompt();
-    
-    /**
-     * Retourne la durée estimée de cette proposition en secondes.
-     * @return Durée estimée en secondes
-     */
-    int getEstimatedDuration();
+    PreparedProposal prepare(Activity currentActivity, UserProfile userProfile, LocalDateTime currentTime);
     
     /**
      * Retourne une liste d'activités qui sont compatibles avec cette proposition.
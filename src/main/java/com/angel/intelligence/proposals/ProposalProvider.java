@@ -0,0 +1,44 @@
+package com.angel.intelligence.proposals;
+
+import com.angel.config.ConfigManager;
+import com.angel.model.Activity;
+
+import java.util.List;
+
+/**
+ * Fournisseur d'un type de proposition, découvert par {@link java.util.ServiceLoader}.
+ *
+ * Un fournisseur est déclaré dans
+ * {@code META-INF/services/com.angel.intelligence.proposals.ProposalProvider}. Ses
+ * métadonnées sont lues sans créer la proposition ; celle-ci n'est instanciée qu'à
+ * la première évaluation d'une activité compatible.
+ */
+public interface ProposalProvider {
+
+    /**
+     * Retourne l'identifiant du type de proposition, égal à {@link Proposal#getId()}.
+     * @return L'identifiant (ex: "weather")
+     */
+    String getType();
+
+    /**
+     * Retourne les activités pour lesquelles la proposition peut être évaluée.
+     * @return Liste des activités compatibles
+     */
+    List<Activity> getCompatibleActivities();
+
+    /**
+     * Retourne le coût relatif estimé d'une évaluation : 1 pour un calcul local,
+     * davantage lorsqu'une source de contenu externe est interrogée.
+     * @return Coût estimé
+     */
+    int getEstimatedCost();
+
+    /**
+     * Crée la proposition. Appelée au plus une fois.
+     *
+     * @param configManager Gestionnaire de configuration
+     * @return La proposition, sans état
+     */
+    Proposal create(ConfigManager configManager);
+}
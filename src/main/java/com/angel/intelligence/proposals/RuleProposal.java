@@ -0,0 +1,301 @@
+package com.angel.intelligence.proposals;
+
+import com.angel.config.ConfigManager;
+import com.angel.intelligence.ProposalHistoryIndex;
+import com.angel.model.Activity;
+import com.angel.model.UserProfile;
+import com.angel.util.DateTimeUtil;
+import com.angel.util.LogUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Proposition déclarée dans la configuration, sans classe Java dédiée.
+ *
+ * Une règle {@code <id>} est décrite par les propriétés {@code proposals.rules.<id>.*} :
+ * <ul>
+ *   <li>{@code activities} : activités compatibles ({@code waiting,going-to-sleep})</li>
+ *   <li>{@code hours} : heures autorisées, valeurs ou plages incluses ({@code 7-9,13,22-1}) ;
+ *       toutes les heures si absent</li>
+ *   <li>{@code cooldown} : délai minimal entre deux présentations (ms), vérifié par le
+ *       moteur comme pour les autres propositions</li>
+ *   <li>{@code max-per-day} : nombre maximal de présentations par jour, 0 pour aucune limite</li>
+ *   <li>{@code priority} : priorité de la proposition</li>
+ *   <li>{@code title}, {@code content}, {@code avatar-prompt} : textes, où {@code {name}},
+ *       {@code {time}} et {@code {activity}} sont remplacés à la préparation</li>
+ *   <li>{@code duration} : durée estimée en secondes</li>
+ * </ul>
+ * Les activités et les heures sont compilées en masques de bits au chargement : la
+ * vérification d'une règle est un test de bits et une lecture de l'index d'historique.
+ */
+public final class RuleProposal implements Proposal {
+
+    private static final Logger LOGGER = LogUtil.getLogger(RuleProposal.class);
+
+    public static final String RULES_PREFIX = "proposals.rules.";
+
+    private final String id;
+    private final List<Activity> compatibleActivities;
+    private final long activityMask;
+    private final int hourMask;
+    private final int maxPerDay;
+    private final int priority;
+    private final Template title;
+    private final Template content;
+    private final Template avatarPrompt;
+    private final int estimatedDuration;
+
+    private RuleProposal(String id, List<Activity> compatibleActivities, int hourMask, int maxPerDay, int priority,
+                         Template title, Template content, Template avatarPrompt, int estimatedDuration) {
+        this.id = id;
+        this.compatibleActivities = Collections.unmodifiableList(compatibleActivities);
+        long mask = 0L;
+        for (Activity activity : compatibleActivities) {
+            mask |= 1L << activity.ordinal();
+        }
+        this.activityMask = mask;
+        this.hourMask = hourMask;
+        this.maxPerDay = maxPerDay;
+        this.priority = priority;
+        this.title = title;
+        this.content = content;
+        this.avatarPrompt = avatarPrompt;
+        this.estimatedDuration = estimatedDuration;
+    }
+
+    /**
+     * Compile toutes les règles déclarées sous {@code proposals.rules.*}, dans l'ordre
+     * alphabétique de leurs identifiants. Une règle invalide est ignorée avec un
+     * avertissement.
+     *
+     * @param configManager Gestionnaire de configuration
+     * @return Les règles compilées
+     */
+    public static List<RuleProposal> compileAll(ConfigManager configManager) {
+        Properties properties = configManager.getPropertiesWithPrefix(RULES_PREFIX);
+        Set<String> ids = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot > 0) {
+                ids.add(key.substring(0, dot));
+            }
+        }
+
+        List<RuleProposal> rules = new ArrayList<>(ids.size());
+        for (String ruleId : ids) {
+            try {
+                rules.add(compile(ruleId, properties));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Règle de proposition ''{0}'' ignorée : {1}",
+                           new Object[]{ruleId, e.getMessage()});
+            }
+        }
+        return rules;
+    }
+
+    private static RuleProposal compile(String ruleId, Properties properties) {
+        String prefix = ruleId + ".";
+
+        List<Activity> activities = new ArrayList<>();
+        for (String name : split(properties.getProperty(prefix + "activities", ""))) {
+            try {
+                activities.add(Activity.valueOf(name.toUpperCase().replace('-', '_')));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("activité inconnue " + name);
+            }
+        }
+        if (activities.isEmpty()) {
+            throw new IllegalArgumentException("aucune activité déclarée");
+        }
+
+        String titleText = properties.getProperty(prefix + "title");
+        String contentText = properties.getProperty(prefix + "content");
+        if (titleText == null || contentText == null) {
+            throw new IllegalArgumentException("title et content sont obligatoires");
+        }
+
+        return new RuleProposal(
+            ruleId,
+            activities,
+            parseHours(properties.getProperty(prefix + "hours", "")),
+            (int) parseLong(properties, prefix + "max-per-day", 0L),
+            (int) parseLong(properties, prefix + "priority", 50L),
+            Template.compile(titleText),
+            Template.compile(contentText),
+            Template.compile(properties.getProperty(prefix + "avatar-prompt", titleText)),
+            (int) parseLong(properties, prefix + "duration", 10L)
+        );
+    }
+
+    /**
+     * Compile une liste d'heures et de plages en masque de 24 bits. Une plage dont la
+     * fin précède le début passe minuit.
+     */
+    private static int parseHours(String value) {
+        List<String> entries = split(value);
+        if (entries.isEmpty()) {
+            return (1 << 24) - 1;
+        }
+        int mask = 0;
+        for (String entry : entries) {
+            int dash = entry.indexOf('-');
+            int start;
+            int end;
+            try {
+                start = Integer.parseInt(dash < 0 ? entry : entry.substring(0, dash).trim());
+                end = dash < 0 ? start : Integer.parseInt(entry.substring(dash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("heures invalides " + entry);
+            }
+            if (start < 0 || start > 23 || end < 0 || end > 23) {
+                throw new IllegalArgumentException("heures invalides " + entry);
+            }
+            for (int hour = start; ; hour = (hour + 1) % 24) {
+                mask |= 1 << hour;
+                if (hour == end) {
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static long parseLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("valeur invalide pour " + key + " : " + value);
+        }
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isAppropriate(
+        Activity currentActivity,
+        Map<LocalDateTime, Activity> previousActivities,
+        UserProfile userProfile,
+        LocalDateTime currentTime,
+        ProposalHistoryIndex proposalHistory
+    ) {
+        if ((activityMask & (1L << currentActivity.ordinal())) == 0
+                || (hourMask & (1 << currentTime.getHour())) == 0) {
+            return false;
+        }
+
+        if (maxPerDay > 0) {
+            long startOfDay = DateTimeUtil.toTimestamp(currentTime.toLocalDate().atStartOfDay());
+            return proposalHistory.countSince(id, startOfDay) < maxPerDay;
+        }
+        return true;
+    }
+
+    @Override
+    public int getPriority(
+        Activity currentActivity,
+        Map<LocalDateTime, Activity> previousActivities,
+        UserProfile userProfile,
+        LocalDateTime currentTime,
+        ProposalHistoryIndex proposalHistory
+    ) {
+        return priority;
+    }
+
+    @Override
+    public PreparedProposal prepare(Activity currentActivity, UserProfile userProfile, LocalDateTime currentTime) {
+        String[] values = {
+            userProfile.getName() != null ? userProfile.getName() : "",
+            String.format("%02dh%02d", currentTime.getHour(), currentTime.getMinute()),
+            currentActivity.getDescription()
+        };
+        return new PreparedProposal(id, title.render(values), content.render(values),
+                                    avatarPrompt.render(values), estimatedDuration);
+    }
+
+    @Override
+    public List<Activity> getCompatibleActivities() {
+        return compatibleActivities;
+    }
+
+    @Override
+    public List<Activity> getIncompatibleFollowUpActivities() {
+        return List.of();
+    }
+
+    /**
+     * Texte découpé au chargement en fragments fixes et en variables, pour un rendu
+     * par simple concaténation.
+     */
+    private static final class Template {
+
+        private static final String[] VARIABLES = {"{name}", "{time}", "{activity}"};
+
+        private final String[] literals;
+        private final int[] variables;
+
+        private Template(String[] literals, int[] variables) {
+            this.literals = literals;
+            this.variables = variables;
+        }
+
+        static Template compile(String text) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> variables = new ArrayList<>();
+            int position = 0;
+            while (true) {
+                int next = -1;
+                int variable = -1;
+                for (int i = 0; i < VARIABLES.length; i++) {
+                    int index = text.indexOf(VARIABLES[i], position);
+                    if (index >= 0 && (next < 0 || index < next)) {
+                        next = index;
+                        variable = i;
+                    }
+                }
+                if (next < 0) {
+                    literals.add(text.substring(position));
+                    break;
+                }
+                literals.add(text.substring(position, next));
+                variables.add(variable);
+                position = next + VARIABLES[variable].length();
+            }
+            return new Template(literals.toArray(new String[0]),
+                                variables.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        String render(String[] values) {
+            StringBuilder builder = new StringBuilder(literals[0]);
+            for (int i = 0; i < variables.length; i++) {
+                builder.append(values[variables[i]]).append(literals[i + 1]);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.angel.intelligence.proposals;
 
 import com.angel.config.ConfigManager;
+import com.angel.intelligence.ProposalHistoryIndex;
 import com.angel.model.Activity;
 import com.angel.model.UserProfile;
-import com.angel.model.ProposalHistory;
-import com.angel.util.DateTimeUtil;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -14,16 +13,16 @@ import java.util.Map;
 
 /**
  * Proposition de météo qui présente les prévisions du jour et du lendemain.
+ * Sans état : la même instance est évaluée en parallèle pour tous les utilisateurs.
  */
 public class WeatherProposal implements Proposal {
     
+    static final String ID = "weather";
+    
     private final ConfigManager configManager;
-    private String title;
-    private String content;
-    private boolean includeTomorrow;
     
     // Liste des activités compatibles avec cette proposition
-    private static final List<Activity> COMPATIBLE_ACTIVITIES = Arrays.asList(
+    static final List<Activity> COMPATIBLE_ACTIVITIES = Arrays.asList(
         Activity.WAITING, 
         Activity.EATING, 
         Activity.WAKING_UP,
@@ -36,24 +35,11 @@ public class WeatherProposal implements Proposal {
     
     public WeatherProposal(ConfigManager configManager) {
         this.configManager = configManager;
-        this.title = "Météo du jour";
-        this.content = "";
-        this.includeTomorrow = true;
     }
     
     @Override
     public String getId() {
-        return "weather";
-    }
-    
-    @Override
-    public String getTitle() {
-        return title;
-    }
-    
-    @Override
-    public String getContent() {
-        return content;
+        return ID;
     }
     
     @Override
@@ -62,25 +48,22 @@ public class WeatherProposal implements Proposal {
         Map<LocalDateTime, Activity> previousActivities,
         UserProfile userProfile,
         LocalDateTime currentTime,
-        List<ProposalHistory> proposalHistory
+        ProposalHistoryIndex proposalHistory
     ) {
         // Vérifier si l'activité actuelle est compatible
         if (!COMPATIBLE_ACTIVITIES.contains(currentActivity)) {
             return false;
         }
         
-        // Vérifier si on est dans les heures préférées pour la météo
-        List<Integer> preferredHours = configManager.getIntegerList("proposals.timeConstraints.weather.preferredHours");
-        int currentHour = currentTime.getHour();
-        if (!preferredHours.contains(currentHour)) {
-            return false;
+        // Vérifier si on est dans les heures préférées pour la météo ; le délai depuis
+        // la dernière présentation est vérifié par le moteur. L'ancienne clé
+        // timeConstraints.weather.preferredHours reste lue si elle est seule définie.
+        String key = "proposals.time-constraints.weather.preferred-hours";
+        if (!configManager.hasProperty(key)) {
+            key = "proposals.timeConstraints.weather.preferredHours";
         }
-        
-        // Vérifier si on n'a pas déjà proposé la météo récemment
-        long minTimeBetween = configManager.getLong("proposals.daily.weather.minTimeBetween");
-        return proposalHistory.stream()
-            .filter(p -> p.getProposalType().equals(getId()))
-            .noneMatch(p -> DateTimeUtil.millisBetween(p.getTimestamp(), currentTime) < minTimeBetween);
+        List<Integer> preferredHours = configManager.getIntegerList(key);
+        return preferredHours.contains(currentTime.getHour());
     }
     
     @Override
@@ -89,7 +72,7 @@ public class WeatherProposal implements Proposal {
         Map<LocalDateTime, Activity> previousActivities,
         UserProfile userProfile,
         LocalDateTime currentTime,
-        List<ProposalHistory> proposalHistory
+        ProposalHistoryIndex proposalHistory
     ) {
         int basePriority = 50; // Priorité de base moyenne
         
@@ -109,7 +92,6 @@ public class WeatherProposal implements Proposal {
         // Augmenter la priorité si la personne va se coucher (météo de demain)
         if (currentActivity == Activity.GOING_TO_SLEEP) {
             basePriority += 15;
-            includeTomorrow = true;
         }
         
         // Réduire la priorité si c'est une activité qui demande de l'attention
@@ -121,44 +103,34 @@ public class WeatherProposal implements Proposal {
     }
     
     @Override
-    public void prepare(Activity currentActivity, UserProfile userProfile, LocalDateTime currentTime) {
-        // Adapter le titre selon qu'on inclut la météo de demain ou non
-        if (includeTomorrow || currentActivity == Activity.GOING_TO_SLEEP) {
-            this.title = "Météo d'aujourd'hui et de demain";
-            this.includeTomorrow = true;
-        } else {
-            this.title = "Météo du jour";
-            this.includeTomorrow = false;
-        }
+    public PreparedProposal prepare(Activity currentActivity, UserProfile userProfile, LocalDateTime currentTime) {
+        // La météo de demain est toujours donnée au coucher, et sinon selon la configuration
+        boolean includeTomorrow = currentActivity == Activity.GOING_TO_SLEEP
+            || configManager.getBoolean("proposals.daily.weather.include-tomorrow", true);
+        
+        String title = includeTomorrow ? "Météo d'aujourd'hui et de demain" : "Météo du jour";
         
         // Ici, on simulerait un appel à un service météo
         // Pour l'exemple, on met un contenu statique
-        this.content = "Aujourd'hui: Ensoleillé, température maximale de 22°C.\n";
+        StringBuilder content = new StringBuilder("Aujourd'hui: Ensoleillé, température maximale de 22°C.\n");
         
         if (includeTomorrow) {
-            this.content += "Demain: Partiellement nuageux, température maximale de 19°C.\n";
+            content.append("Demain: Partiellement nuageux, température maximale de 19°C.\n");
         }
         
         // Adapter le contenu selon l'activité
         if (currentActivity == Activity.GOING_TO_SLEEP) {
-            this.content += "Bonne nuit, et à demain !";
+            content.append("Bonne nuit, et à demain !");
         } else if (currentActivity == Activity.WAKING_UP) {
-            this.content += "Je vous souhaite une excellente journée !";
+            content.append("Je vous souhaite une excellente journée !");
         }
-    }
-    
-    @Override
-    public String generateAvatarPrompt() {
-        if (includeTomorrow) {
-            return "Bonjour ! Voici la météo d'aujourd'hui et de demain.";
-        } else {
-            return "Bonjour ! Voici la météo du jour.";
-        }
-    }
-    
-    @Override
-    public int getEstimatedDuration() {
-        return includeTomorrow ? 20 : 10; // Durée en secondes
+        
+        String avatarPrompt = includeTomorrow
+            ? "Bonjour ! Voici la météo d'aujourd'hui et de demain."
+            : "Bonjour ! Voici la météo du jour.";
+        int estimatedDuration = includeTomorrow ? 20 : 10; // Durée en secondes
+        
+        return new PreparedProposal(getId(), title, content.toString(), avatarPrompt, estimatedDuration);
     }
     
     @Override
@@ -0,0 +1,32 @@
+package com.angel.intelligence.proposals;
+
+import com.angel.config.ConfigManager;
+import com.angel.model.Activity;
+
+import java.util.List;
+
+/**
+ * Fournisseur de la proposition météo.
+ */
+public class WeatherProposalProvider implements ProposalProvider {
+
+    @Override
+    public String getType() {
+        return WeatherProposal.ID;
+    }
+
+    @Override
+    public List<Activity> getCompatibleActivities() {
+        return WeatherProposal.COMPATIBLE_ACTIVITIES;
+    }
+
+    @Override
+    public int getEstimatedCost() {
+        return 5; // Appel au service météo
+    }
+
+    @Override
+    public Proposal create(ConfigManager configManager) {
+        return new WeatherProposal(configManager);
+    }
+}
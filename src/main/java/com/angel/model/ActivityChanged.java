@@ -0,0 +1,11 @@
+package com.angel.model;
+
+/**
+ * Événement publié quand l'activité détectée d'un utilisateur change.
+ *
+ * @param userId ID de l'utilisateur
+ * @param previous Activité précédente
+ * @param current Nouvelle activité
+ * @param timestamp Date du changement (millisecondes depuis l'epoch)
+ */
+public record ActivityChanged(long userId, Activity previous, Activity current, long timestamp) {}
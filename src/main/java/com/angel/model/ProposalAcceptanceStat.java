@@ -0,0 +1,81 @@
+package com.angel.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs amortis de présentations et d'acceptations d'un type de proposition,
+ * pour un utilisateur, une activité et une heure de la journée.
+ */
+public class ProposalAcceptanceStat {
+    
+    private final long userId;
+    private final String proposalType;
+    private final String activityType;
+    private final int hourOfDay;
+    private final double shown;
+    private final double accepted;
+    private final LocalDateTime updatedAt;
+    
+    /**
+     * Constructeur avec tous les champs.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activityType Activité lors de la présentation
+     * @param hourOfDay Heure de la journée (0-23)
+     * @param shown Nombre amorti de présentations à la date de mise à jour
+     * @param accepted Nombre amorti d'acceptations à la date de mise à jour
+     * @param updatedAt Date à laquelle les compteurs ont été amortis pour la dernière fois
+     */
+    public ProposalAcceptanceStat(long userId, String proposalType, String activityType, int hourOfDay,
+                                  double shown, double accepted, LocalDateTime updatedAt) {
+        this.userId = userId;
+        this.proposalType = proposalType;
+        this.activityType = activityType;
+        this.hourOfDay = hourOfDay;
+        this.shown = shown;
+        this.accepted = accepted;
+        this.updatedAt = updatedAt;
+    }
+    
+    public long getUserId() {
+        return userId;
+    }
+    
+    public String getProposalType() {
+        return proposalType;
+    }
+    
+    public String getActivityType() {
+        return activityType;
+    }
+    
+    public int getHourOfDay() {
+        return hourOfDay;
+    }
+    
+    public double getShown() {
+        return shown;
+    }
+    
+    public double getAccepted() {
+        return accepted;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProposalAcceptanceStat{" +
+                "userId=" + userId +
+                ", proposalType='" + proposalType + '\'' +
+                ", activityType='" + activityType + '\'' +
+                ", hourOfDay=" + hourOfDay +
+                ", shown=" + shown +
+                ", accepted=" + accepted +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.angel.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cumul quotidien des propositions d'un type présentées à un utilisateur.
+ */
+public class ProposalDailyCount {
+    
+    private final long userId;
+    private final String proposalType;
+    private final LocalDate day;
+    private final int count;
+    private final LocalDateTime lastShownAt;
+    
+    /**
+     * Constructeur avec tous les champs.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param day Jour du cumul
+     * @param count Nombre de propositions présentées ce jour-là
+     * @param lastShownAt Date et heure de la dernière présentation du jour
+     */
+    public ProposalDailyCount(long userId, String proposalType, LocalDate day, int count, LocalDateTime lastShownAt) {
+        this.userId = userId;
+        this.proposalType = proposalType;
+        this.day = day;
+        this.count = count;
+        this.lastShownAt = lastShownAt;
+    }
+    
+    public long getUserId() {
+        return userId;
+    }
+    
+    public String getProposalType() {
+        return proposalType;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public LocalDateTime getLastShownAt() {
+        return lastShownAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProposalDailyCount{" +
+                "userId=" + userId +
+                ", proposalType='" + proposalType + '\'' +
+                ", day=" + day +
+                ", count=" + count +
+                ", lastShownAt=" + lastShownAt +
+                '}';
+    }
+}
@@ -9,6 +9,7 @@ import java.time.temporal.ChronoUnit;
 public class ProposalHistory {
     
     private Long id;
+    private long userId;
     private String proposalType;
     private LocalDateTime timestamp;
     private String activityType;
@@ -39,6 +40,19 @@ public class ProposalHistory {
         this.accepted = false;
     }
     
+    /**
+     * Constructeur avec l'utilisateur auquel la proposition a été présentée.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param activityType Type d'activité de l'utilisateur lors de la proposition
+     * @param title Titre de la proposition
+     */
+    public ProposalHistory(long userId, String proposalType, String activityType, String title) {
+        this(proposalType, activityType, title);
+        this.userId = userId;
+    }
+    
     // Getters et setters
     
     public Long getId() {
@@ -49,6 +63,14 @@ public class ProposalHistory {
         this.id = id;
     }
     
+    public long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+    
     public String getProposalType() {
         return proposalType;
     }
@@ -130,6 +152,7 @@ public class ProposalHistory {
     public String toString() {
         return "ProposalHistory{" +
                 "id=" + id +
+                ", userId=" + userId +
                 ", proposalType='" + proposalType + '\'' +
                 ", timestamp=" + timestamp +
                 ", activityType='" + activityType + '\'' +
@@ -1,8 +1,12 @@
 package com.angel.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Classe représentant le profil d'un utilisateur avec ses préférences
@@ -15,14 +19,17 @@ public class UserProfile {
     private String email;
     private LocalDateTime createdAt;
     private LocalDateTime lastActiveAt;
-    private Map<String, String> preferences;
+    // Concurrente : les écouteurs du stockage la modifient depuis leur propre thread
+    private volatile Map<String, String> preferences;
     private Map<String, Object> personalInfo;
+    // Incrémentée à chaque modification des préférences
+    private final AtomicLong preferencesVersion = new AtomicLong();
     
     /**
      * Constructeur par défaut.
      */
     public UserProfile() {
-        this.preferences = new HashMap<>();
+        this.preferences = new ConcurrentHashMap<>();
         this.personalInfo = new HashMap<>();
         this.createdAt = LocalDateTime.now();
         this.lastActiveAt = LocalDateTime.now();
@@ -85,7 +92,24 @@ public class UserProfile {
     }
     
     public void setPreferences(Map<String, String> preferences) {
-        this.preferences = preferences;
+        Map<String, String> copy = new ConcurrentHashMap<>();
+        preferences.forEach((key, value) -> {
+            if (key != null && value != null) {
+                copy.put(key, value);
+            }
+        });
+        this.preferences = copy;
+        preferencesVersion.incrementAndGet();
+    }
+    
+    /**
+     * Obtient la version des préférences, incrémentée à chaque modification.
+     * 
+     * @return Version des préférences
+     */
+    @JsonIgnore
+    public long getPreferencesVersion() {
+        return preferencesVersion.get();
     }
     
     public Map<String, Object> getPersonalInfo() {
@@ -118,13 +142,18 @@ public class UserProfile {
     }
     
     /**
-     * Définit une préférence.
+     * Définit une préférence ; une valeur null la supprime.
      * 
      * @param key Clé de la préférence
      * @param value Valeur de la préférence
      */
     public void setPreference(String key, String value) {
+        if (value == null) {
+            removePreference(key);
+            return;
+        }
         preferences.put(key, value);
+        preferencesVersion.incrementAndGet();
     }
     
     /**
@@ -134,6 +163,7 @@ public class UserProfile {
      */
     public void removePreference(String key) {
         preferences.remove(key);
+        preferencesVersion.incrementAndGet();
     }
     
     /**
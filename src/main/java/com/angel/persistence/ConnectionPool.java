@@ -0,0 +1,318 @@
+package com.angel.persistence;
+
+import com.angel.util.LogUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool borné de connexions JDBC.
+ *
+ * Les connexions empruntées sont des proxys : appeler {@code close()} rend la
+ * connexion physique au pool au lieu de la fermer, ce qui permet aux DAOs de
+ * conserver leurs blocs try-with-resources. Le pool valide les connexions avant
+ * de les prêter, évince les connexions inactives trop longtemps et limite
+ * l'attente d'un emprunt quand toutes les connexions sont occupées.
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Connexion physique au repos dans le pool, avec la date de son dernier retour.
+     */
+    private record IdleConnection(Connection connection, long returnedAt) {
+    }
+
+    /**
+     * Crée un pool de connexions.
+     *
+     * @param url URL JDBC
+     * @param username Nom d'utilisateur
+     * @param password Mot de passe
+     * @param maxSize Nombre maximal de connexions ouvertes simultanément
+     * @param minIdle Nombre de connexions inactives conservées malgré l'éviction
+     * @param maxWaitMillis Attente maximale pour obtenir une connexion
+     * @param idleTimeoutMillis Durée d'inactivité après laquelle une connexion est fermée
+     * @param validationTimeoutSeconds Délai accordé à la validation d'une connexion
+     */
+    public ConnectionPool(String url, String username, String password,
+                          int maxSize, int minIdle, long maxWaitMillis,
+                          long idleTimeoutMillis, int validationTimeoutSeconds) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La taille maximale du pool doit être positive");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "angel-db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (idleTimeoutMillis > 0) {
+            long period = Math.max(1000L, idleTimeoutMillis / 2);
+            evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        LOGGER.log(Level.INFO, "Pool de connexions créé (max={0}, minIdle={1}, maxWait={2}ms)",
+                   new Object[]{maxSize, this.minIdle, maxWaitMillis});
+    }
+
+    /**
+     * Emprunte une connexion au pool. La connexion doit être fermée par l'appelant
+     * pour être rendue au pool.
+     *
+     * @return Une connexion valide
+     * @throws SQLException si aucune connexion n'est disponible dans le délai imparti
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTimeoutException(
+                    "Aucune connexion disponible après " + maxWaitMillis + "ms (pool de " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interruption pendant l'attente d'une connexion", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            Connection physical = takeValidIdleConnection();
+            if (physical == null) {
+                physical = DriverManager.getConnection(url, username, password);
+                totalConnections.incrementAndGet();
+                createdCount.incrementAndGet();
+            }
+            borrowCount.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère la connexion inactive la plus récente qui passe la validation.
+     */
+    private Connection takeValidIdleConnection() {
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            if (isValid(idle.connection())) {
+                return idle.connection();
+            }
+            invalidCount.incrementAndGet();
+            discard(idle.connection());
+        }
+        return null;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rend une connexion physique au pool.
+     */
+    private void release(Connection physical) {
+        try {
+            boolean reusable = !closed && !physical.isClosed();
+            if (reusable && !physical.getAutoCommit()) {
+                // Ne jamais rendre une transaction en cours à l'emprunteur suivant
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                idleConnections.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            } else {
+                discard(physical);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Connexion rejetée lors de son retour au pool", e);
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        totalConnections.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Erreur lors de la fermeture d'une connexion du pool", e);
+        }
+    }
+
+    /**
+     * Ferme les connexions inactives depuis plus longtemps que le délai configuré,
+     * en conservant au moins {@code minIdle} connexions.
+     */
+    private void evictIdleConnections() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int idleCount = idleConnections.size();
+        // Les connexions les plus anciennes sont en fin de file
+        Iterator<IdleConnection> it = idleConnections.descendingIterator();
+        while (it.hasNext() && idleCount > minIdle) {
+            IdleConnection idle = it.next();
+            if (idle.returnedAt() >= cutoff) {
+                break;
+            }
+            if (idleConnections.removeLastOccurrence(idle)) {
+                idleCount--;
+                evictedCount.incrementAndGet();
+                discard(idle.connection());
+            }
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            release(physical);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "unwrap":
+                        if (args != null && args[0] == Connection.class) {
+                            return physical;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + physical + "]";
+                    default:
+                        break;
+                }
+                if (returned) {
+                    throw new SQLException("Connexion déjà rendue au pool");
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Ferme le pool et toutes les connexions inactives. Les connexions encore
+     * empruntées sont fermées à leur retour.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            discard(idle.connection());
+        }
+        LOGGER.log(Level.INFO, "Pool de connexions fermé");
+    }
+
+    /**
+     * Obtient le nombre de connexions actuellement empruntées.
+     *
+     * @return Nombre de connexions en cours d'utilisation
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * Obtient les métriques du pool.
+     *
+     * @return Map contenant les compteurs du pool
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        int idle = idleConnections.size();
+        int total = totalConnections.get();
+        long borrows = borrowCount.get();
+        metrics.put("maxSize", maxSize);
+        metrics.put("minIdle", minIdle);
+        metrics.put("total", total);
+        metrics.put("idle", idle);
+        metrics.put("active", getActiveCount());
+        metrics.put("waiting", permits.getQueueLength());
+        metrics.put("borrowed", borrows);
+        metrics.put("created", createdCount.get());
+        metrics.put("evicted", evictedCount.get());
+        metrics.put("invalidated", invalidCount.get());
+        metrics.put("timeouts", timeoutCount.get());
+        metrics.put("averageWaitMillis", borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows);
+        return metrics;
+    }
+}
@@ -0,0 +1,238 @@
+package com.angel.persistence;
+
+import com.angel.util.LogUtil;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sauvegarde en ligne de la base H2, sans arrêter l'application.
+ *
+ * Chaque sauvegarde produit une archive ZIP horodatée dans le répertoire configuré :
+ * {@code BACKUP TO} pour une base fichier, {@code SCRIPT TO ... COMPRESSION ZIP} pour
+ * une base en mémoire. Seules les {@code keep} archives les plus récentes sont
+ * conservées. Pour ne pas concurrencer l'enregistrement des propositions, la
+ * sauvegarde tourne sur un thread de basse priorité et est différée tant que le
+ * pool de connexions est occupé.
+ */
+public class DatabaseBackupService {
+
+    private static final Logger LOGGER = LogUtil.getLogger(DatabaseBackupService.class);
+
+    private static final String FILE_PREFIX = "angel-db-";
+    private static final String FILE_SUFFIX = ".zip";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final DatabaseManager databaseManager;
+    private final Path backupDirectory;
+    private final int keep;
+    private final int maxActiveConnections;
+    private final long deferDelayMillis;
+    private final int maxDeferrals;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile LocalDateTime lastBackupAt;
+    private volatile long lastDurationMillis = -1;
+    private volatile Path lastBackupFile;
+    private volatile long lastSizeBytes = -1;
+    private volatile String lastError;
+    private volatile long successCount = 0;
+    private volatile long failureCount = 0;
+    private volatile long deferralCount = 0;
+
+    /**
+     * Crée le service de sauvegarde.
+     *
+     * @param databaseManager Le gestionnaire de base de données
+     * @param backupDirectory Répertoire des archives
+     * @param keep Nombre d'archives conservées
+     * @param maxActiveConnections Au-delà de ce nombre de connexions empruntées, la sauvegarde est différée
+     * @param deferDelayMillis Attente avant de réévaluer la charge
+     * @param maxDeferrals Nombre maximal de reports avant de sauvegarder malgré la charge
+     */
+    public DatabaseBackupService(DatabaseManager databaseManager, Path backupDirectory, int keep,
+                                 int maxActiveConnections, long deferDelayMillis, int maxDeferrals) {
+        this.databaseManager = databaseManager;
+        this.backupDirectory = backupDirectory.toAbsolutePath();
+        this.keep = Math.max(1, keep);
+        this.maxActiveConnections = maxActiveConnections;
+        this.deferDelayMillis = deferDelayMillis;
+        this.maxDeferrals = maxDeferrals;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "angel-db-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Planifie les sauvegardes périodiques.
+     *
+     * @param initialDelayMillis Délai avant la première sauvegarde
+     * @param intervalMillis Intervalle entre deux sauvegardes
+     */
+    public void start(long initialDelayMillis, long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                backupNow();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Erreur lors de la sauvegarde de la base de données", e);
+            }
+        }, initialDelayMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        LOGGER.log(Level.INFO, "Sauvegardes de la base planifiées dans {0} ({1} archives conservées)",
+                   new Object[]{backupDirectory, keep});
+    }
+
+    /**
+     * Effectue immédiatement une sauvegarde sur le thread appelant, après avoir attendu
+     * que la charge du pool retombe.
+     *
+     * @return Le fichier de sauvegarde créé, ou null en cas d'échec
+     */
+    public synchronized Path backupNow() {
+        waitForQuietPool();
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        Path target = backupDirectory.resolve(FILE_PREFIX + FILE_TIMESTAMP.format(startedAt) + FILE_SUFFIX);
+        String quotedTarget = "'" + target.toString().replace("'", "''") + "'";
+
+        try {
+            Files.createDirectories(backupDirectory);
+            try (Connection conn = databaseManager.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                if (databaseManager.isInMemory()) {
+                    stmt.execute("SCRIPT TO " + quotedTarget + " COMPRESSION ZIP");
+                } else {
+                    stmt.execute("BACKUP TO " + quotedTarget);
+                }
+            }
+
+            lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            lastBackupAt = startedAt;
+            lastBackupFile = target;
+            lastSizeBytes = Files.size(target);
+            lastError = null;
+            successCount++;
+            LOGGER.log(Level.INFO, "Sauvegarde de la base créée : {0} ({1} octets, {2}ms)",
+                       new Object[]{target, lastSizeBytes, lastDurationMillis});
+
+            rotate();
+            return target;
+        } catch (SQLException | IOException e) {
+            lastError = e.getMessage();
+            failureCount++;
+            LOGGER.log(Level.SEVERE, "Échec de la sauvegarde de la base de données", e);
+            return null;
+        }
+    }
+
+    /**
+     * Diffère la sauvegarde tant que le pool est occupé, dans la limite de maxDeferrals.
+     */
+    private void waitForQuietPool() {
+        for (int attempt = 0; attempt < maxDeferrals; attempt++) {
+            if (databaseManager.getActiveConnectionCount() <= maxActiveConnections) {
+                return;
+            }
+            deferralCount++;
+            try {
+                Thread.sleep(deferDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOGGER.log(Level.WARNING, "Pool toujours occupé après {0} reports, sauvegarde lancée malgré la charge",
+                   maxDeferrals);
+    }
+
+    /**
+     * Supprime les archives les plus anciennes au-delà de {@code keep}.
+     */
+    private void rotate() throws IOException {
+        List<Path> backups = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupDirectory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(backups::add);
+        }
+        // Le nom horodaté trie les archives par ordre chronologique
+        Collections.sort(backups);
+        for (int i = 0; i < backups.size() - keep; i++) {
+            Files.deleteIfExists(backups.get(i));
+            LOGGER.log(Level.FINE, "Ancienne sauvegarde supprimée : {0}", backups.get(i));
+        }
+    }
+
+    /**
+     * Obtient les métriques de sauvegarde.
+     *
+     * @return Map contenant la date, la durée et le fichier de la dernière sauvegarde
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("directory", backupDirectory.toString());
+        metrics.put("keep", keep);
+        metrics.put("successCount", successCount);
+        metrics.put("failureCount", failureCount);
+        metrics.put("deferrals", deferralCount);
+        LocalDateTime backupAt = lastBackupAt;
+        if (backupAt != null) {
+            metrics.put("lastBackupAt", backupAt.toString());
+            metrics.put("lastDurationMillis", lastDurationMillis);
+            metrics.put("lastFile", String.valueOf(lastBackupFile));
+            metrics.put("lastSizeBytes", lastSizeBytes);
+        }
+        if (lastError != null) {
+            metrics.put("lastError", lastError);
+        }
+        return metrics;
+    }
+
+    /**
+     * Obtient la date de la dernière sauvegarde réussie.
+     *
+     * @return La date, ou null si aucune sauvegarde n'a réussi
+     */
+    public LocalDateTime getLastBackupAt() {
+        return lastBackupAt;
+    }
+
+    /**
+     * Obtient la durée de la dernière sauvegarde réussie.
+     *
+     * @return Durée en millisecondes, ou -1 si aucune sauvegarde n'a réussi
+     */
+    public long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    /**
+     * Arrête les sauvegardes planifiées ; une sauvegarde en cours se termine.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,14 +4,13 @@ import com.angel.config.ConfigManager;
 import com.angel.util.LogUtil;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Gestionnaire de base de données qui gère la connexion et l'initialisation
+ * Gestionnaire de base de données qui gère le pool de connexions et l'initialisation
  * de la base de données H2.
  */
 public class DatabaseManager {
@@ -19,7 +18,8 @@ public class DatabaseManager {
     private static final Logger LOGGER = LogUtil.getLogger(DatabaseManager.class);
     
     private final ConfigManager configManager;
-    private Connection connection;
+    private volatile ConnectionPool connectionPool;
+    private int schemaVersion;
     
     /**
      * Constructeur avec injection du gestionnaire de configuration.
@@ -35,9 +35,12 @@ public class DatabaseManager {
     }
     
     /**
-     * Initialise la base de données et crée les tables nécessaires.
+     * Initialise la base de données et applique les migrations de schéma en attente.
+     * Le DDL n'est exécuté qu'ici : les connexions empruntées ensuite au pool
+     * n'en déclenchent jamais.
      */
     private void initializeDatabase() {
+        boolean initialized = false;
         try {
             // Charger le driver H2
             String driverClassName = configManager.getString("database.driver", "org.h2.Driver");
@@ -58,12 +61,21 @@ public class DatabaseManager {
             
             LOGGER.log(Level.INFO, "Connexion à la base de données : {0}", url);
             
-            connection = DriverManager.getConnection(url, username, password);
+            connectionPool = new ConnectionPool(
+                url, username, password,
+                configManager.getInt("database.pool.max-size", 10),
+                configManager.getInt("database.pool.min-idle", 2),
+                configManager.getLong("database.pool.max-wait", 5000L),
+                configManager.getLong("database.pool.idle-timeout", 300000L),
+                configManager.getInt("database.pool.validation-timeout", 2)
+            );
             
-            LOGGER.log(Level.INFO, "Connexion à la base de données établie");
-            
-            // Créer les tables
-            createTables();
+            // Appliquer les migrations en attente (une seule lecture de version si le schéma est à jour)
+            try (Connection connection = connectionPool.borrow()) {
+                LOGGER.log(Level.INFO, "Connexion à la base de données établie");
+                schemaVersion = new SchemaMigrator().migrate(connection);
+            }
+            initialized = true;
             
         } catch (ClassNotFoundException e) {
             LOGGER.log(Level.SEVERE, "Driver de base de données non trouvé", e);
@@ -74,101 +86,78 @@ public class DatabaseManager {
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de l'initialisation de la base de données", e);
             throw new RuntimeException("Échec de l'initialisation de la base de données", e);
+        } finally {
+            // Un pool créé avant l'échec ne doit pas garder ses connexions ni son thread d'éviction
+            if (!initialized && connectionPool != null) {
+                connectionPool.close();
+                connectionPool = null;
+            }
         }
     }
     
     /**
-     * Crée les tables nécessaires si elles n'existent pas.
+     * Emprunte une connexion au pool. La fermer (try-with-resources) la rend
+     * au pool sans fermer la connexion physique.
+     * 
+     * @return Une connexion à la base de données
+     * @throws SQLException si le pool n'est pas initialisé ou si aucune connexion n'est
+     *         disponible dans le délai configuré
      */
-    private void createTables() {
-        try (Statement stmt = connection.createStatement()) {
-            
-            // Table pour l'historique des propositions
-            String createProposalHistoryTable = """
-                CREATE TABLE IF NOT EXISTS proposal_history (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    proposal_type VARCHAR(50) NOT NULL,
-                    timestamp TIMESTAMP NOT NULL,
-                    activity_type VARCHAR(50) NOT NULL,
-                    title VARCHAR(255) NOT NULL,
-                    accepted BOOLEAN DEFAULT FALSE,
-                    completion_time TIMESTAMP NULL
-                )
-            """;
-            stmt.execute(createProposalHistoryTable);
-            
-            // Table pour les préférences utilisateur
-            String createUserPreferencesTable = """
-                CREATE TABLE IF NOT EXISTS user_preferences (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    user_id BIGINT NOT NULL,
-                    preference_key VARCHAR(100) NOT NULL,
-                    preference_value VARCHAR(500) NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                    UNIQUE(user_id, preference_key)
-                )
-            """;
-            stmt.execute(createUserPreferencesTable);
-            
-            // Table pour les activités détectées (cache local)
-            String createActivitiesTable = """
-                CREATE TABLE IF NOT EXISTS activities (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    activity_type VARCHAR(50) NOT NULL,
-                    timestamp TIMESTAMP NOT NULL,
-                    confidence DOUBLE NOT NULL,
-                    source VARCHAR(50) NOT NULL,
-                    additional_info TEXT
-                )
-            """;
-            stmt.execute(createActivitiesTable);
-            
-            // Index pour améliorer les performances
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_proposal_history_type_timestamp ON proposal_history(proposal_type, timestamp)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_user_preferences_user_id ON user_preferences(user_id)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_activities_timestamp ON activities(timestamp)");
-            
-            LOGGER.log(Level.INFO, "Tables créées avec succès");
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la création des tables", e);
-            throw new RuntimeException("Impossible de créer les tables", e);
+    public Connection getConnection() throws SQLException {
+        ConnectionPool pool = connectionPool;
+        if (pool == null) {
+            throw new SQLException("Pool de connexions non initialisé");
         }
+        return pool.borrow();
     }
     
     /**
-     * Obtient la connexion à la base de données.
-     * 
-     * @return La connexion à la base de données
+     * Ferme le pool et toutes ses connexions.
      */
-    public Connection getConnection() {
-        try {
-            // Vérifier si la connexion est encore valide
-            if (connection == null || connection.isClosed()) {
-                LOGGER.log(Level.WARNING, "Connexion fermée, reconnexion...");
-                initializeDatabase();
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "Erreur lors de la vérification de la connexion", e);
-            initializeDatabase();
+    public void closeConnection() {
+        if (connectionPool != null) {
+            connectionPool.close();
+            LOGGER.log(Level.INFO, "Connexion à la base de données fermée");
         }
-        
-        return connection;
     }
     
     /**
-     * Ferme la connexion à la base de données.
+     * Obtient les métriques du pool de connexions.
+     * 
+     * @return Map contenant les compteurs du pool, vide si le pool n'est pas initialisé
      */
-    public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                LOGGER.log(Level.INFO, "Connexion à la base de données fermée");
-            } catch (SQLException e) {
-                LOGGER.log(Level.WARNING, "Erreur lors de la fermeture de la connexion", e);
-            }
-        }
+    public java.util.Map<String, Object> getPoolMetrics() {
+        ConnectionPool pool = connectionPool;
+        return pool != null ? pool.getMetrics() : java.util.Map.of();
+    }
+    
+    /**
+     * Obtient le nombre de connexions actuellement empruntées au pool.
+     * 
+     * @return Nombre de connexions en cours d'utilisation, 0 si le pool n'est pas initialisé
+     */
+    public int getActiveConnectionCount() {
+        ConnectionPool pool = connectionPool;
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+    
+    /**
+     * Indique si la base est en mémoire (URL {@code jdbc:h2:mem:}), donc sans fichier
+     * à sauvegarder par {@code BACKUP TO}.
+     * 
+     * @return true pour une base en mémoire
+     */
+    public boolean isInMemory() {
+        return configManager.getString("database.url", "").startsWith("jdbc:h2:mem:");
+    }
+    
+    /**
+     * Obtient la version du schéma de la base de données.
+     * 
+     * @return Version du schéma après les migrations du démarrage
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
     }
     
     /**
@@ -177,7 +166,8 @@ public class DatabaseManager {
      * @return true si la connexion fonctionne, false sinon
      */
     public boolean testConnection() {
-        try (Statement stmt = getConnection().createStatement()) {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
             stmt.execute("SELECT 1");
             return true;
         } catch (SQLException e) {
@@ -196,6 +186,7 @@ public class DatabaseManager {
         info.put("url", configManager.getString("database.url", "N/A"));
         info.put("driver", configManager.getString("database.driver", "N/A"));
         info.put("username", configManager.getString("database.username", "N/A"));
+        info.put("schemaVersion", String.valueOf(schemaVersion));
         // Masquer le mot de passe pour la sécurité
         info.put("password", "***");
         return info;
@@ -0,0 +1,140 @@
+package com.angel.persistence;
+
+import com.angel.config.ConfigManager;
+import com.angel.persistence.dao.AcceptanceStatsDAO;
+import com.angel.persistence.dao.ActivityDAO;
+import com.angel.persistence.dao.ProposalDAO;
+import com.angel.persistence.dao.UserPreferenceDAO;
+import com.angel.persistence.memory.InMemoryAcceptanceStatsRepository;
+import com.angel.persistence.memory.InMemoryActivityRepository;
+import com.angel.persistence.memory.InMemoryProposalRepository;
+import com.angel.persistence.memory.InMemoryUserPreferenceRepository;
+import com.angel.persistence.repository.AcceptanceStatsRepository;
+import com.angel.persistence.repository.ActivityRepository;
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.persistence.repository.UserPreferenceRepository;
+import com.angel.util.LogUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Regroupe les stockages utilisés par l'application, selon le backend choisi par
+ * la propriété {@code database.backend} :
+ * <ul>
+ *   <li>{@code h2} (par défaut) : DAOs JDBC sur la base H2 configurée ;</li>
+ *   <li>{@code memory} : stockages en mémoire à verrous répartis, sans aucun fichier
+ *       de base de données (tests, bancs d'essai).</li>
+ * </ul>
+ */
+public class PersistenceBackend {
+
+    private static final Logger LOGGER = LogUtil.getLogger(PersistenceBackend.class);
+
+    public static final String H2 = "h2";
+    public static final String MEMORY = "memory";
+
+    private final String name;
+    private final DatabaseManager databaseManager;
+    private final ProposalRepository proposalRepository;
+    private final UserPreferenceRepository userPreferenceRepository;
+    private final ActivityRepository activityRepository;
+    private final AcceptanceStatsRepository acceptanceStatsRepository;
+
+    private PersistenceBackend(String name, DatabaseManager databaseManager,
+                               ProposalRepository proposalRepository,
+                               UserPreferenceRepository userPreferenceRepository,
+                               ActivityRepository activityRepository,
+                               AcceptanceStatsRepository acceptanceStatsRepository) {
+        this.name = name;
+        this.databaseManager = databaseManager;
+        this.proposalRepository = proposalRepository;
+        this.userPreferenceRepository = userPreferenceRepository;
+        this.activityRepository = activityRepository;
+        this.acceptanceStatsRepository = acceptanceStatsRepository;
+    }
+
+    /**
+     * Crée les stockages du backend configuré.
+     *
+     * @param configManager Le gestionnaire de configuration
+     * @return Le backend initialisé
+     */
+    public static PersistenceBackend create(ConfigManager configManager) {
+        String backend = configManager.getString("database.backend", H2).trim().toLowerCase();
+
+        if (MEMORY.equals(backend)) {
+            int stripes = configManager.getInt("database.memory.lock-stripes", 16);
+            LOGGER.log(Level.INFO, "Persistance en mémoire ({0} bandes de verrous)", stripes);
+            return new PersistenceBackend(MEMORY, null,
+                new InMemoryProposalRepository(stripes),
+                new InMemoryUserPreferenceRepository(stripes),
+                new InMemoryActivityRepository(stripes),
+                new InMemoryAcceptanceStatsRepository());
+        }
+
+        if (!H2.equals(backend)) {
+            LOGGER.log(Level.WARNING, "Backend de persistance inconnu ''{0}'', utilisation de H2", backend);
+        }
+        DatabaseManager databaseManager = new DatabaseManager(configManager);
+        return new PersistenceBackend(H2, databaseManager,
+            new ProposalDAO(databaseManager),
+            new UserPreferenceDAO(databaseManager),
+            new ActivityDAO(databaseManager),
+            new AcceptanceStatsDAO(databaseManager));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Obtient le gestionnaire de base de données.
+     *
+     * @return Le gestionnaire H2, ou null pour le backend en mémoire
+     */
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    public ProposalRepository getProposalRepository() {
+        return proposalRepository;
+    }
+
+    public UserPreferenceRepository getUserPreferenceRepository() {
+        return userPreferenceRepository;
+    }
+
+    public ActivityRepository getActivityRepository() {
+        return activityRepository;
+    }
+
+    public AcceptanceStatsRepository getAcceptanceStatsRepository() {
+        return acceptanceStatsRepository;
+    }
+
+    /**
+     * Obtient les métriques du backend (pool de connexions pour H2).
+     *
+     * @return Map contenant les métriques
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("backend", name);
+        if (databaseManager != null) {
+            metrics.put("connectionPool", databaseManager.getPoolMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Libère les ressources du backend.
+     */
+    public void close() {
+        if (databaseManager != null) {
+            databaseManager.closeConnection();
+        }
+    }
+}
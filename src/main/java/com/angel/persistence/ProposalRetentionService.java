@@ -0,0 +1,182 @@
+package com.angel.persistence;
+
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.util.LogUtil;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service de rétention de l'historique des propositions.
+ *
+ * Exécuté périodiquement sur son propre thread, il cumule les propositions expirées
+ * dans un résumé mensuel puis les supprime par tranches bornées, chaque tranche dans
+ * une transaction courte suivie d'une pause. Les verrous restent ainsi brefs et les
+ * appels concurrents à {@code saveProposal} ne sont jamais bloqués longtemps.
+ */
+public class ProposalRetentionService {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ProposalRetentionService.class);
+
+    private final ProposalRepository proposalRepository;
+    private final int daysToKeep;
+    private final int chunkSize;
+    private final long pauseBetweenChunksMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile RetentionReport lastReport;
+    private volatile boolean stopping = false;
+
+    /**
+     * Rapport d'une exécution de la rétention.
+     */
+    public static class RetentionReport {
+        private final LocalDateTime startedAt;
+        private final LocalDateTime cutoff;
+        private final long rowsRemoved;
+        private final int chunks;
+        private final long durationMillis;
+
+        public RetentionReport(LocalDateTime startedAt, LocalDateTime cutoff, long rowsRemoved,
+                               int chunks, long durationMillis) {
+            this.startedAt = startedAt;
+            this.cutoff = cutoff;
+            this.rowsRemoved = rowsRemoved;
+            this.chunks = chunks;
+            this.durationMillis = durationMillis;
+        }
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getCutoff() { return cutoff; }
+        public long getRowsRemoved() { return rowsRemoved; }
+        public int getChunks() { return chunks; }
+        public long getDurationMillis() { return durationMillis; }
+    }
+
+    /**
+     * Crée le service de rétention.
+     *
+     * @param proposalRepository Stockage de l'historique des propositions
+     * @param daysToKeep Nombre de jours d'historique détaillé à conserver
+     * @param chunkSize Nombre maximal de lignes supprimées par tranche
+     * @param pauseBetweenChunksMillis Pause entre deux tranches
+     */
+    public ProposalRetentionService(ProposalRepository proposalRepository, int daysToKeep, int chunkSize,
+                                    long pauseBetweenChunksMillis) {
+        this.proposalRepository = proposalRepository;
+        this.daysToKeep = daysToKeep;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseBetweenChunksMillis = pauseBetweenChunksMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "angel-proposal-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Planifie l'exécution périodique de la rétention.
+     *
+     * @param initialDelayMillis Délai avant la première exécution
+     * @param intervalMillis Intervalle entre deux exécutions
+     */
+    public void start(long initialDelayMillis, long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Erreur lors de la rétention de l'historique des propositions", e);
+            }
+        }, initialDelayMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        LOGGER.log(Level.INFO, "Rétention des propositions planifiée ({0} jours conservés, tranches de {1})",
+                   new Object[]{daysToKeep, chunkSize});
+    }
+
+    /**
+     * Exécute immédiatement une passe de rétention sur le thread appelant.
+     *
+     * @return Le rapport de l'exécution
+     */
+    public RetentionReport runOnce() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusDays(daysToKeep);
+        long start = System.nanoTime();
+
+        long rowsRemoved = 0;
+        int chunks = 0;
+        long lastId = 0;
+        while (!stopping) {
+            ProposalRepository.RetentionChunk chunk = proposalRepository.archiveExpiredChunk(cutoff, lastId, chunkSize);
+            if (chunk == null) {
+                break;
+            }
+            rowsRemoved += chunk.deletedRows();
+            lastId = chunk.lastId();
+            chunks++;
+
+            // Laisser passer les écritures concurrentes entre deux tranches
+            if (pauseBetweenChunksMillis > 0) {
+                try {
+                    Thread.sleep(pauseBetweenChunksMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        RetentionReport report = new RetentionReport(startedAt, cutoff, rowsRemoved, chunks,
+                                                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        lastReport = report;
+        LOGGER.log(Level.INFO, "Rétention des propositions : {0} lignes supprimées en {1} tranches ({2}ms)",
+                   new Object[]{rowsRemoved, chunks, report.getDurationMillis()});
+        return report;
+    }
+
+    /**
+     * Obtient le rapport de la dernière exécution.
+     *
+     * @return Le dernier rapport, ou null si la rétention n'a jamais été exécutée
+     */
+    public RetentionReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Obtient les métriques de la dernière exécution.
+     *
+     * @return Map contenant les métriques de rétention
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("daysToKeep", daysToKeep);
+        metrics.put("chunkSize", chunkSize);
+        RetentionReport report = lastReport;
+        if (report != null) {
+            metrics.put("lastRunAt", report.getStartedAt().toString());
+            metrics.put("lastRowsRemoved", report.getRowsRemoved());
+            metrics.put("lastChunks", report.getChunks());
+            metrics.put("lastDurationMillis", report.getDurationMillis());
+        }
+        return metrics;
+    }
+
+    /**
+     * Arrête le service ; une passe en cours s'interrompt après la tranche courante.
+     */
+    public void shutdown() {
+        stopping = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
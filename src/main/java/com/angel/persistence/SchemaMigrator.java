@@ -0,0 +1,237 @@
+package com.angel.persistence;
+
+import com.angel.util.LogUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applique les migrations de schéma dans l'ordre, en conservant la version courante
+ * dans la table {@code schema_version}.
+ *
+ * Au démarrage, la table {@code schema_version} est créée si besoin, puis une seule
+ * requête lit la version courante ; seules les migrations de version supérieure sont
+ * exécutées. Une nouvelle table ou un nouvel index s'ajoute en ajoutant une migration
+ * à la fin de {@link #MIGRATIONS}, jamais en modifiant une migration existante.
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = LogUtil.getLogger(SchemaMigrator.class);
+
+    /**
+     * Une migration : un numéro de version strictement croissant et les instructions DDL
+     * à exécuter pour passer à cette version.
+     */
+    public record Migration(int version, String description, List<String> statements) {}
+
+    /**
+     * Migrations connues, par ordre de version. Les instructions restent idempotentes
+     * ({@code IF NOT EXISTS}) afin qu'une base créée avant le versionnement puisse être
+     * reprise sans erreur.
+     */
+    static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Schéma initial", List.of(
+            """
+                CREATE TABLE IF NOT EXISTS proposal_history (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    proposal_type VARCHAR(50) NOT NULL,
+                    timestamp TIMESTAMP NOT NULL,
+                    activity_type VARCHAR(50) NOT NULL,
+                    title VARCHAR(255) NOT NULL,
+                    accepted BOOLEAN DEFAULT FALSE,
+                    completion_time TIMESTAMP NULL
+                )
+            """,
+            """
+                CREATE TABLE IF NOT EXISTS user_preferences (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    user_id BIGINT NOT NULL,
+                    preference_key VARCHAR(100) NOT NULL,
+                    preference_value VARCHAR(500) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    UNIQUE(user_id, preference_key)
+                )
+            """,
+            """
+                CREATE TABLE IF NOT EXISTS activities (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    activity_type VARCHAR(50) NOT NULL,
+                    timestamp TIMESTAMP NOT NULL,
+                    confidence DOUBLE NOT NULL,
+                    source VARCHAR(50) NOT NULL,
+                    additional_info TEXT
+                )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_proposal_history_type_timestamp ON proposal_history(proposal_type, timestamp)",
+            "CREATE INDEX IF NOT EXISTS idx_user_preferences_user_id ON user_preferences(user_id)",
+            "CREATE INDEX IF NOT EXISTS idx_activities_timestamp ON activities(timestamp)"
+        )),
+        new Migration(2, "Cumuls quotidiens des propositions", List.of(
+            """
+                CREATE TABLE IF NOT EXISTS proposal_daily_counts (
+                    user_id BIGINT NOT NULL,
+                    proposal_type VARCHAR(50) NOT NULL,
+                    stat_day DATE NOT NULL,
+                    shown_count INT NOT NULL,
+                    last_shown_at TIMESTAMP NOT NULL,
+                    PRIMARY KEY (user_id, proposal_type, stat_day)
+                )
+            """
+        )),
+        new Migration(3, "Résumés mensuels des propositions purgées", List.of(
+            """
+                CREATE TABLE IF NOT EXISTS proposal_monthly_summary (
+                    user_id BIGINT NOT NULL,
+                    proposal_type VARCHAR(50) NOT NULL,
+                    stat_month DATE NOT NULL,
+                    shown_count BIGINT NOT NULL,
+                    accepted_count BIGINT NOT NULL,
+                    PRIMARY KEY (user_id, proposal_type, stat_month)
+                )
+            """
+        )),
+        new Migration(4, "Historique des propositions par utilisateur", List.of(
+            // Les lignes antérieures appartiennent à l'unique utilisateur d'origine (ID 1)
+            "ALTER TABLE proposal_history ADD COLUMN IF NOT EXISTS user_id BIGINT DEFAULT 1 NOT NULL",
+            "CREATE INDEX IF NOT EXISTS idx_proposal_history_user_type_timestamp ON proposal_history(user_id, proposal_type, timestamp)",
+            "DROP INDEX IF EXISTS idx_proposal_history_type_timestamp"
+        )),
+        new Migration(5, "Statistiques d'acceptation des propositions", List.of(
+            """
+                CREATE TABLE IF NOT EXISTS proposal_acceptance_stats (
+                    user_id BIGINT NOT NULL,
+                    proposal_type VARCHAR(50) NOT NULL,
+                    activity_type VARCHAR(50) NOT NULL,
+                    hour_of_day INT NOT NULL,
+                    shown DOUBLE NOT NULL,
+                    accepted DOUBLE NOT NULL,
+                    updated_at TIMESTAMP NOT NULL,
+                    PRIMARY KEY (user_id, proposal_type, activity_type, hour_of_day)
+                )
+            """
+        )),
+        new Migration(6, "Reprise des cumuls quotidiens depuis l'historique", List.of(
+            // La migration 2 a créé les cumuls vides : les jours déjà présents dans
+            // l'historique sont repris, sans toucher aux cumuls écrits depuis
+            """
+                INSERT INTO proposal_daily_counts (user_id, proposal_type, stat_day, shown_count, last_shown_at)
+                SELECT h.user_id, h.proposal_type, CAST(h.timestamp AS DATE), COUNT(*), MAX(h.timestamp)
+                FROM proposal_history h
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM proposal_daily_counts d
+                    WHERE d.user_id = h.user_id
+                      AND d.proposal_type = h.proposal_type
+                      AND d.stat_day = CAST(h.timestamp AS DATE)
+                )
+                GROUP BY h.user_id, h.proposal_type, CAST(h.timestamp AS DATE)
+            """
+        ))
+    );
+
+    private final List<Migration> migrations;
+
+    /**
+     * Crée un migrateur avec les migrations connues de l'application.
+     */
+    public SchemaMigrator() {
+        this(MIGRATIONS);
+    }
+
+    /**
+     * Crée un migrateur avec une liste de migrations donnée.
+     *
+     * @param migrations Migrations triées par version croissante
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    /**
+     * Obtient la version la plus récente connue de l'application.
+     *
+     * @return Numéro de la dernière migration
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    /**
+     * Amène le schéma à la dernière version en exécutant les migrations en attente.
+     *
+     * @param connection Connexion utilisée pour lire la version et exécuter le DDL
+     * @return La version du schéma après migration
+     * @throws SQLException si une migration échoue ; les migrations déjà appliquées restent enregistrées
+     */
+    public int migrate(Connection connection) throws SQLException {
+        int currentVersion = readCurrentVersion(connection);
+        if (currentVersion >= getLatestVersion()) {
+            LOGGER.log(Level.FINE, "Schéma à jour (version {0})", currentVersion);
+            return currentVersion;
+        }
+
+        for (Migration migration : migrations) {
+            if (migration.version() <= currentVersion) {
+                continue;
+            }
+            apply(connection, migration);
+            currentVersion = migration.version();
+        }
+
+        LOGGER.log(Level.INFO, "Schéma migré vers la version {0}", currentVersion);
+        return currentVersion;
+    }
+
+    /**
+     * Lit la version courante du schéma, en créant au besoin la table
+     * {@code schema_version} : une table vide correspond à la version 0. Toute erreur
+     * est propagée, une base existante ne doit jamais être prise pour une base vide.
+     */
+    private int readCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            try (ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        LOGGER.log(Level.INFO, "Application de la migration {0} : {1}",
+                   new Object[]{migration.version(), migration.description()});
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement();
+             PreparedStatement record = connection.prepareStatement(
+                 "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+
+            for (String statement : migration.statements()) {
+                stmt.execute(statement);
+            }
+
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.executeUpdate();
+
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.angel.persistence;
+
+import com.angel.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * File d'écriture différée vers la base de données.
+ *
+ * Les enregistrements sont placés dans une file bornée en mémoire ; un thread
+ * d'écriture les regroupe et les confie par lots à une fonction d'écriture
+ * (typiquement un batch JDBC dans une seule transaction),
+ * dès que le lot est plein ou que le délai de vidage est écoulé. Quand la file est
+ * pleine, l'appelant attend un court instant puis écrit lui-même l'enregistrement
+ * (contre-pression) afin qu'aucun enregistrement ne soit perdu.
+ *
+ * Un lot en échec est réécrit ligne par ligne ; les lignes encore en échec sont
+ * mises de côté et réessayées avec un délai croissant. Tant que ces lignes atteignent
+ * la capacité de la file, le thread d'écriture cesse de vider la file, ce qui
+ * ramène les appelants à la contre-pression. Un échec n'est imputé à une ligne que si
+ * d'autres lignes ont été écrites depuis son échec précédent, ou si elle a déjà été
+ * mise en cause (donnée invalide plutôt que base indisponible) ; une ligne n'est
+ * abandonnée qu'après cinq échecs imputés, ou à l'arrêt.
+ */
+public class WriteBehindQueue<T> {
+
+    private static final Logger LOGGER = LogUtil.getLogger(WriteBehindQueue.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60000L;
+
+    /**
+     * Ligne en attente d'un nouvel essai, avec le nombre d'échecs qui lui sont imputés
+     * et le nombre total de lignes écrites lors de son dernier échec.
+     */
+    private static final class PendingItem<T> {
+        final T item;
+        int attempts;
+        long writtenAtLastFailure;
+
+        PendingItem(T item, long writtenAtLastFailure) {
+            this.item = item;
+            this.writtenAtLastFailure = writtenAtLastFailure;
+        }
+    }
+
+    private final String name;
+    private final Consumer<List<T>> batchWriter;
+    private final BlockingQueue<T> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final Thread flusher;
+    private final List<Consumer<List<T>>> writtenListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong backpressureCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+
+    // Lignes en échec, réessayées par le thread d'écriture ; protégées par leur propre verrou
+    private final List<PendingItem<T>> retries = new ArrayList<>();
+    private long retryDelayMillis;
+    private long nextRetryAt;
+
+    private volatile boolean running = true;
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+
+    /**
+     * Crée et démarre la file d'écriture différée.
+     *
+     * @param name Nom de la file, utilisé pour le thread d'écriture et les logs
+     * @param batchWriter Fonction qui écrit un lot en une seule transaction
+     * @param capacity Capacité maximale de la file
+     * @param batchSize Taille maximale d'un lot
+     * @param flushIntervalMillis Délai maximal avant l'écriture d'un lot incomplet
+     * @param offerTimeoutMillis Attente maximale de l'appelant quand la file est pleine
+     */
+    public WriteBehindQueue(String name, Consumer<List<T>> batchWriter, int capacity, int batchSize,
+                            long flushIntervalMillis, long offerTimeoutMillis) {
+        this.name = name;
+        this.batchWriter = batchWriter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.retryDelayMillis = Math.max(100L, flushIntervalMillis);
+
+        this.flusher = new Thread(this::runFlusher, "angel-" + name + "-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        LOGGER.log(Level.INFO, "Écriture différée {0} activée (capacité={1}, lot={2}, délai={3}ms)",
+                   new Object[]{name, capacity, this.batchSize, flushIntervalMillis});
+    }
+
+    /**
+     * Enregistre une action exécutée après chaque lot écrit avec succès, sur le thread
+     * qui l'a écrit, typiquement pour reporter sur les lignes écrites des modifications
+     * arrivées pendant l'écriture.
+     *
+     * @param listener Action recevant les enregistrements écrits
+     */
+    public void addWrittenListener(Consumer<List<T>> listener) {
+        writtenListeners.add(listener);
+    }
+
+    /**
+     * Ajoute un enregistrement à écrire. Si la file reste pleine au-delà du délai
+     * configuré, l'enregistrement est écrit de manière synchrone.
+     *
+     * @param item L'enregistrement à sauvegarder
+     */
+    public void enqueue(T item) {
+        // Le verrou partagé rend la vérification et l'ajout atomiques vis-à-vis de
+        // l'arrêt : aucun ajout ne peut aboutir après le dernier vidage de la file
+        stopLock.readLock().lock();
+        try {
+            if (running) {
+                try {
+                    if (queue.offer(item, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        enqueuedCount.incrementAndGet();
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                backpressureCount.incrementAndGet();
+                LOGGER.log(Level.WARNING, "File d''écriture {0} pleine, écriture synchrone", name);
+            }
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        writeBatch(new ArrayList<>(List.of(item)));
+    }
+
+    /**
+     * Boucle du thread d'écriture : constitue un lot borné par la taille ou le délai.
+     */
+    private void runFlusher() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                retryPending(false);
+                if (getRetryDepth() >= capacity) {
+                    // Lignes en échec à pleine capacité : la file n'est plus vidée
+                    Thread.sleep(flushIntervalMillis);
+                    continue;
+                }
+                T first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Un lot en cours de constitution lors d'une interruption ne doit pas être perdu
+        writeBatch(batch);
+    }
+
+    private void writeBatch(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            try {
+                batchWriter.accept(batch);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Échec de l'écriture d'un lot " + name + " de " + batch.size()
+                           + " éléments, écriture ligne par ligne", e);
+                writeOneByOne(pendingItems(batch, writtenCount.get()));
+                return;
+            }
+            recordWritten(batch);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static <T> List<PendingItem<T>> pendingItems(List<T> batch, long written) {
+        List<PendingItem<T>> items = new ArrayList<>(batch.size());
+        for (T item : batch) {
+            items.add(new PendingItem<>(item, written));
+        }
+        return items;
+    }
+
+    /**
+     * Écrit chaque ligne séparément et met de côté celles qui échouent.
+     */
+    private void writeOneByOne(List<PendingItem<T>> items) {
+        List<PendingItem<T>> failed = new ArrayList<>();
+        for (PendingItem<T> pending : items) {
+            if (!tryWrite(new ArrayList<>(List.of(pending.item)))) {
+                failed.add(pending);
+            }
+        }
+        long written = writtenCount.get();
+
+        synchronized (retries) {
+            for (PendingItem<T> pending : failed) {
+                // Un échec alors que d'autres écritures passent est imputé à la ligne ;
+                // sinon la base est vraisemblablement indisponible
+                boolean attributable = pending.attempts > 0 || written > pending.writtenAtLastFailure;
+                pending.writtenAtLastFailure = written;
+                if (attributable && ++pending.attempts >= MAX_ATTEMPTS) {
+                    failedCount.incrementAndGet();
+                    LOGGER.log(Level.SEVERE, "Élément {0} abandonné après {1} échecs : {2}",
+                               new Object[]{name, pending.attempts, pending.item});
+                } else {
+                    retries.add(pending);
+                }
+            }
+            if (failed.isEmpty()) {
+                retryDelayMillis = Math.max(100L, flushIntervalMillis);
+            } else {
+                nextRetryAt = System.currentTimeMillis() + retryDelayMillis;
+                retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Réessaie les lignes mises de côté dont le délai est écoulé.
+     *
+     * @param force true pour réessayer sans attendre le délai
+     */
+    private void retryPending(boolean force) {
+        List<PendingItem<T>> items;
+        synchronized (retries) {
+            if (retries.isEmpty() || (!force && System.currentTimeMillis() < nextRetryAt)) {
+                return;
+            }
+            items = new ArrayList<>(retries);
+            retries.clear();
+        }
+        retriedCount.addAndGet(items.size());
+        LOGGER.log(Level.INFO, "Nouvel essai d''écriture de {0} éléments {1}", new Object[]{items.size(), name});
+        writeOneByOne(items);
+    }
+
+    private int getRetryDepth() {
+        synchronized (retries) {
+            return retries.size();
+        }
+    }
+
+    /**
+     * Confie des enregistrements à la fonction d'écriture.
+     *
+     * @return true si l'écriture a réussi
+     */
+    private boolean tryWrite(List<T> items) {
+        try {
+            batchWriter.accept(items);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Échec de l'écriture " + name, e);
+            return false;
+        }
+        recordWritten(items);
+        return true;
+    }
+
+    private void recordWritten(List<T> written) {
+        writtenCount.addAndGet(written.size());
+        batchCount.incrementAndGet();
+        notifyWritten(written);
+    }
+
+    private void notifyWritten(List<T> written) {
+        for (Consumer<List<T>> listener : writtenListeners) {
+            try {
+                listener.accept(written);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erreur dans un écouteur d'écriture " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Arrête le thread d'écriture et écrit tous les enregistrements encore en file.
+     *
+     * Si le thread d'écriture n'est pas arrêté après le délai (base lente), l'attente
+     * se prolonge jusqu'à la fin de son lot en cours : la file n'est jamais écrite
+     * depuis deux threads à la fois, et la base n'est pas fermée sous ce lot.
+     *
+     * @param timeoutMillis Attente de l'arrêt du thread d'écriture avant avertissement
+     */
+    public void flushAndStop(long timeoutMillis) {
+        if (!running) {
+            return;
+        }
+        // Pas d'interruption : elle fermerait le canal de fichier H2 en pleine écriture.
+        // Le thread s'arrête au plus tard après un délai de vidage. Le verrou exclusif
+        // attend les ajouts en cours ; les suivants écrivent eux-mêmes leur enregistrement.
+        stopLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        try {
+            flusher.join(timeoutMillis);
+            if (flusher.isAlive()) {
+                LOGGER.log(Level.WARNING, "Thread d''écriture {0} toujours actif après {1}ms, attente de la fin du lot en cours",
+                           new Object[]{name, timeoutMillis});
+                flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (flusher.isAlive()) {
+            // Arrêt interrompu : le thread d'écriture garde la main sur la file
+            int abandoned = queue.size() + getRetryDepth();
+            failedCount.addAndGet(abandoned);
+            LOGGER.log(Level.SEVERE, "Arrêt de la file {0} interrompu pendant une écriture : {1} éléments non écrits, lot en cours incertain",
+                       new Object[]{name, abandoned});
+            return;
+        }
+
+        List<T> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            writeBatch(new ArrayList<>(remaining.subList(from, Math.min(from + batchSize, remaining.size()))));
+        }
+
+        // Dernier essai des lignes en échec : celles qui échouent encore sont perdues
+        retryPending(true);
+        synchronized (retries) {
+            if (!retries.isEmpty()) {
+                failedCount.addAndGet(retries.size());
+                LOGGER.log(Level.SEVERE, "{0} éléments {1} non écrits à l''arrêt", new Object[]{retries.size(), name});
+                retries.clear();
+            }
+        }
+        LOGGER.log(Level.INFO, "File d''écriture {0} vidée ({1} éléments écrits au total)",
+                   new Object[]{name, writtenCount.get()});
+    }
+
+    /**
+     * Obtient le nombre d'enregistrements en attente d'écriture.
+     *
+     * @return Profondeur actuelle de la file
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Obtient les métriques de la file d'écriture.
+     *
+     * @return Map contenant les compteurs de la file
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("remainingCapacity", queue.remainingCapacity());
+        metrics.put("enqueued", enqueuedCount.get());
+        metrics.put("written", writtenCount.get());
+        metrics.put("batches", batchCount.get());
+        metrics.put("backpressure", backpressureCount.get());
+        metrics.put("retryDepth", getRetryDepth());
+        metrics.put("retried", retriedCount.get());
+        metrics.put("failed", failedCount.get());
+        return metrics;
+    }
+}
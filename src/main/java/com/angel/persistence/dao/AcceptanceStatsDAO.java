@@ -0,0 +1,113 @@
+package com.angel.persistence.dao;
+
+import com.angel.model.ProposalAcceptanceStat;
+import com.angel.persistence.DatabaseManager;
+import com.angel.persistence.repository.AcceptanceStatsRepository;
+import com.angel.util.LogUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object pour les statistiques d'acceptation des propositions.
+ */
+public class AcceptanceStatsDAO implements AcceptanceStatsRepository {
+
+    private static final Logger LOGGER = LogUtil.getLogger(AcceptanceStatsDAO.class);
+    
+    private static final String MERGE_STAT_SQL = """
+        MERGE INTO proposal_acceptance_stats (user_id, proposal_type, activity_type, hour_of_day, shown, accepted, updated_at)
+        KEY (user_id, proposal_type, activity_type, hour_of_day)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+    
+    private final DatabaseManager databaseManager;
+    
+    /**
+     * Constructeur avec injection du gestionnaire de base de données.
+     * 
+     * @param databaseManager Le gestionnaire de base de données
+     */
+    public AcceptanceStatsDAO(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+    
+    @Override
+    public List<ProposalAcceptanceStat> loadAcceptanceStats() {
+        String sql = """
+            SELECT user_id, proposal_type, activity_type, hour_of_day, shown, accepted, updated_at
+            FROM proposal_acceptance_stats
+        """;
+        
+        List<ProposalAcceptanceStat> stats = new ArrayList<>();
+        
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                stats.add(new ProposalAcceptanceStat(
+                    rs.getLong("user_id"),
+                    rs.getString("proposal_type"),
+                    rs.getString("activity_type"),
+                    rs.getInt("hour_of_day"),
+                    rs.getDouble("shown"),
+                    rs.getDouble("accepted"),
+                    rs.getTimestamp("updated_at").toLocalDateTime()
+                ));
+            }
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du chargement des statistiques d'acceptation", e);
+            throw new RuntimeException("Impossible de charger les statistiques d'acceptation", e);
+        }
+        
+        return stats;
+    }
+    
+    @Override
+    public int saveAcceptanceStats(List<ProposalAcceptanceStat> stats) {
+        if (stats.isEmpty()) {
+            return 0;
+        }
+        
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(MERGE_STAT_SQL)) {
+                
+                for (ProposalAcceptanceStat stat : stats) {
+                    stmt.setLong(1, stat.getUserId());
+                    stmt.setString(2, stat.getProposalType());
+                    stmt.setString(3, stat.getActivityType());
+                    stmt.setInt(4, stat.getHourOfDay());
+                    stmt.setDouble(5, stat.getShown());
+                    stmt.setDouble(6, stat.getAccepted());
+                    stmt.setTimestamp(7, Timestamp.valueOf(stat.getUpdatedAt()));
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            LOGGER.log(Level.FINE, "{0} statistiques d''acceptation enregistrées", stats.size());
+            return stats.size();
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de l'enregistrement des statistiques d'acceptation", e);
+            throw new RuntimeException("Impossible d'enregistrer les statistiques d'acceptation", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.angel.persistence.dao;
+
+import com.angel.api.dto.ActivityDTO;
+import com.angel.persistence.DatabaseManager;
+import com.angel.persistence.repository.ActivityRepository;
+import com.angel.util.LogUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object pour l'historique des activités détectées, stocké dans la table
+ * {@code activities}. Les écritures se font par lots ; les lectures sont des requêtes
+ * par intervalle de temps qui s'appuient sur l'index {@code idx_activities_timestamp}.
+ */
+public class ActivityDAO implements ActivityRepository {
+
+    private static final Logger LOGGER = LogUtil.getLogger(ActivityDAO.class);
+
+    // Lignes lues par aller-retour lors d'un parcours complet (export)
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructeur avec injection du gestionnaire de base de données.
+     *
+     * @param databaseManager Le gestionnaire de base de données
+     */
+    public ActivityDAO(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Sauvegarde un lot d'activités en une seule transaction via un batch JDBC.
+     *
+     * @param activities Les activités à sauvegarder
+     * @return Nombre d'activités sauvegardées
+     */
+    @Override
+    public int saveActivities(List<ActivityDTO> activities) {
+        if (activities.isEmpty()) {
+            return 0;
+        }
+
+        String sql = """
+            INSERT INTO activities (activity_type, timestamp, confidence, source, additional_info)
+            VALUES (?, ?, ?, ?, ?)
+        """;
+
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                for (ActivityDTO activity : activities) {
+                    long timestamp = activity.getTimestamp() > 0 ? activity.getTimestamp() : System.currentTimeMillis();
+                    stmt.setString(1, activity.getActivityType() != null ? activity.getActivityType() : "UNKNOWN");
+                    stmt.setTimestamp(2, new Timestamp(timestamp));
+                    stmt.setDouble(3, activity.getConfidence());
+                    stmt.setString(4, activity.getSource() != null ? activity.getSource() : "unknown");
+                    stmt.setString(5, activity.getAdditionalInfo());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            LOGGER.log(Level.FINE, "Lot de {0} activités sauvegardé", activities.size());
+            return activities.size();
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la sauvegarde du lot d'activités", e);
+            throw new RuntimeException("Impossible de sauvegarder le lot d'activités", e);
+        }
+    }
+
+    /**
+     * Récupère les activités détectées dans un intervalle de temps, par ordre chronologique.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @param limit Nombre maximal d'activités retournées
+     * @return Liste des activités de l'intervalle
+     */
+    @Override
+    public List<ActivityDTO> getActivitiesBetween(long fromMillis, long toMillis, int limit) {
+        String sql = """
+            SELECT activity_type, timestamp, confidence, source, additional_info
+            FROM activities
+            WHERE timestamp >= ? AND timestamp < ?
+            ORDER BY timestamp
+            LIMIT ?
+        """;
+
+        List<ActivityDTO> activities = new ArrayList<>();
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, new Timestamp(fromMillis));
+            stmt.setTimestamp(2, new Timestamp(toMillis));
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    activities.add(new ActivityDTO(
+                        rs.getString("activity_type"),
+                        rs.getTimestamp("timestamp").getTime(),
+                        rs.getDouble("confidence"),
+                        rs.getString("source"),
+                        rs.getString("additional_info")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des activités", e);
+            throw new RuntimeException("Impossible de récupérer les activités", e);
+        }
+
+        return activities;
+    }
+
+    /**
+     * Parcourt les activités d'un intervalle de temps avec un curseur en lecture seule,
+     * sans construire de liste intermédiaire.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @param action Action appelée pour chaque activité
+     */
+    @Override
+    public void forEachActivity(long fromMillis, long toMillis, Consumer<ActivityDTO> action) {
+        String sql = """
+            SELECT activity_type, timestamp, confidence, source, additional_info
+            FROM activities
+            WHERE timestamp >= ? AND timestamp < ?
+            ORDER BY timestamp
+        """;
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            stmt.setTimestamp(1, new Timestamp(fromMillis));
+            stmt.setTimestamp(2, new Timestamp(toMillis));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(new ActivityDTO(
+                        rs.getString("activity_type"),
+                        rs.getTimestamp("timestamp").getTime(),
+                        rs.getDouble("confidence"),
+                        rs.getString("source"),
+                        rs.getString("additional_info")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du parcours des activités", e);
+            throw new RuntimeException("Impossible de parcourir les activités", e);
+        }
+    }
+
+    /**
+     * Compte les activités détectées dans un intervalle de temps.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @return Nombre d'activités de l'intervalle
+     */
+    @Override
+    public long countActivitiesBetween(long fromMillis, long toMillis) {
+        String sql = "SELECT COUNT(*) FROM activities WHERE timestamp >= ? AND timestamp < ?";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, new Timestamp(fromMillis));
+            stmt.setTimestamp(2, new Timestamp(toMillis));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du comptage des activités", e);
+            throw new RuntimeException("Impossible de compter les activités", e);
+        }
+    }
+}
@@ -1,23 +1,51 @@
 package com.angel.persistence.dao;
 
+import com.angel.model.ProposalDailyCount;
 import com.angel.model.ProposalHistory;
 import com.angel.persistence.DatabaseManager;
+import com.angel.persistence.repository.ProposalRepository;
 import com.angel.util.LogUtil;
 
 import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Data Access Object pour la gestion des propositions dans la base de données.
  */
-public class ProposalDAO {
+public class ProposalDAO implements ProposalRepository {
 
     private static final Logger LOGGER = LogUtil.getLogger(ProposalDAO.class);
     
+    // Lignes lues par aller-retour lors d'un parcours complet (export)
+    private static final int EXPORT_FETCH_SIZE = 500;
+    
+    private static final String INSERT_PROPOSAL_SQL = """
+        INSERT INTO proposal_history (user_id, proposal_type, timestamp, activity_type, title, accepted, completion_time)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+    
+    // Incrémente le cumul du jour, ou le crée à 1 s'il n'existe pas encore
+    private static final String MERGE_DAILY_COUNT_SQL = """
+        MERGE INTO proposal_daily_counts t
+        USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(50)), CAST(? AS DATE), CAST(? AS TIMESTAMP)))
+            s(user_id, proposal_type, stat_day, shown_at)
+        ON t.user_id = s.user_id AND t.proposal_type = s.proposal_type AND t.stat_day = s.stat_day
+        WHEN MATCHED THEN
+            UPDATE SET shown_count = t.shown_count + 1, last_shown_at = GREATEST(t.last_shown_at, s.shown_at)
+        WHEN NOT MATCHED THEN
+            INSERT (user_id, proposal_type, stat_day, shown_count, last_shown_at)
+            VALUES (s.user_id, s.proposal_type, s.stat_day, 1, s.shown_at)
+    """;
+    
     private final DatabaseManager databaseManager;
     
     /**
@@ -30,64 +58,256 @@ public class ProposalDAO {
     }
     
     /**
-     * Sauvegarde une proposition dans la base de données.
+     * Sauvegarde une proposition dans la base de données et met à jour le compteur
+     * quotidien correspondant dans la même transaction.
      * 
      * @param proposalHistory L'historique de proposition à sauvegarder
      * @return L'ID généré pour la proposition
      */
+    @Override
     public Long saveProposal(ProposalHistory proposalHistory) {
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROPOSAL_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement countStmt = conn.prepareStatement(MERGE_DAILY_COUNT_SQL)) {
+                
+                bindProposal(stmt, proposalHistory);
+                int affectedRows = stmt.executeUpdate();
+                
+                bindDailyCount(countStmt, proposalHistory);
+                countStmt.executeUpdate();
+                
+                conn.commit();
+                
+                if (affectedRows > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            Long id = generatedKeys.getLong(1);
+                            proposalHistory.setId(id);
+                            LOGGER.log(Level.FINE, "Proposition sauvegardée avec l'ID: {0}", id);
+                            return id;
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la sauvegarde de la proposition", e);
+            throw new RuntimeException("Impossible de sauvegarder la proposition", e);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Sauvegarde un lot de propositions en une seule transaction via un batch JDBC,
+     * compteurs quotidiens compris.
+     * 
+     * @param proposals Les historiques de proposition à sauvegarder
+     * @return Nombre de propositions sauvegardées
+     */
+    @Override
+    public int saveProposals(List<ProposalHistory> proposals) {
+        if (proposals.isEmpty()) {
+            return 0;
+        }
+        
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROPOSAL_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement countStmt = conn.prepareStatement(MERGE_DAILY_COUNT_SQL)) {
+                
+                for (ProposalHistory proposalHistory : proposals) {
+                    bindProposal(stmt, proposalHistory);
+                    stmt.addBatch();
+                    bindDailyCount(countStmt, proposalHistory);
+                    countStmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                countStmt.executeBatch();
+                conn.commit();
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    for (ProposalHistory proposalHistory : proposals) {
+                        if (!generatedKeys.next()) {
+                            break;
+                        }
+                        proposalHistory.setId(generatedKeys.getLong(1));
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            LOGGER.log(Level.FINE, "Lot de {0} propositions sauvegardé", proposals.size());
+            return proposals.size();
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la sauvegarde du lot de propositions", e);
+            throw new RuntimeException("Impossible de sauvegarder le lot de propositions", e);
+        }
+    }
+    
+    private void bindProposal(PreparedStatement stmt, ProposalHistory proposalHistory) throws SQLException {
+        stmt.setLong(1, proposalHistory.getUserId());
+        stmt.setString(2, proposalHistory.getProposalType());
+        stmt.setTimestamp(3, Timestamp.valueOf(proposalHistory.getTimestamp()));
+        stmt.setString(4, proposalHistory.getActivityType());
+        stmt.setString(5, proposalHistory.getTitle());
+        stmt.setBoolean(6, proposalHistory.isAccepted());
+        
+        if (proposalHistory.getCompletionTime() != null) {
+            stmt.setTimestamp(7, Timestamp.valueOf(proposalHistory.getCompletionTime()));
+        } else {
+            stmt.setNull(7, Types.TIMESTAMP);
+        }
+    }
+    
+    private void bindDailyCount(PreparedStatement stmt, ProposalHistory proposalHistory) throws SQLException {
+        stmt.setLong(1, proposalHistory.getUserId());
+        stmt.setString(2, proposalHistory.getProposalType());
+        stmt.setDate(3, Date.valueOf(proposalHistory.getTimestamp().toLocalDate()));
+        stmt.setTimestamp(4, Timestamp.valueOf(proposalHistory.getTimestamp()));
+    }
+    
+    /**
+     * Obtient le nombre de propositions d'un type présentées un jour donné,
+     * par simple lecture de la table de cumuls quotidiens.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param day Jour concerné
+     * @return Nombre de propositions présentées ce jour-là
+     */
+    @Override
+    public int getDailyCount(long userId, String proposalType, LocalDate day) {
         String sql = """
-            INSERT INTO proposal_history (proposal_type, timestamp, activity_type, title, accepted, completion_time)
-            VALUES (?, ?, ?, ?, ?, ?)
+            SELECT shown_count
+            FROM proposal_daily_counts
+            WHERE user_id = ? AND proposal_type = ? AND stat_day = ?
         """;
         
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, proposalHistory.getProposalType());
-            stmt.setTimestamp(2, Timestamp.valueOf(proposalHistory.getTimestamp()));
-            stmt.setString(3, proposalHistory.getActivityType());
-            stmt.setString(4, proposalHistory.getTitle());
-            stmt.setBoolean(5, proposalHistory.isAccepted());
-            
-            if (proposalHistory.getCompletionTime() != null) {
-                stmt.setTimestamp(6, Timestamp.valueOf(proposalHistory.getCompletionTime()));
-            } else {
-                stmt.setNull(6, Types.TIMESTAMP);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, userId);
+            stmt.setString(2, proposalType);
+            stmt.setDate(3, Date.valueOf(day));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("shown_count") : 0;
             }
             
-            int affectedRows = stmt.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la lecture du compteur quotidien", e);
+            throw new RuntimeException("Impossible de lire le compteur quotidien", e);
+        }
+    }
+    
+    /**
+     * Récupère les cumuls quotidiens de propositions sur une période, par jour puis par type.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param fromDay Premier jour inclus
+     * @param toDay Dernier jour inclus
+     * @return Liste des cumuls quotidiens
+     */
+    @Override
+    public List<ProposalDailyCount> getDailyCounts(long userId, LocalDate fromDay, LocalDate toDay) {
+        String sql = """
+            SELECT user_id, proposal_type, stat_day, shown_count, last_shown_at
+            FROM proposal_daily_counts
+            WHERE user_id = ? AND stat_day BETWEEN ? AND ?
+            ORDER BY stat_day, proposal_type
+        """;
+        
+        List<ProposalDailyCount> counts = new ArrayList<>();
+        
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        Long id = generatedKeys.getLong(1);
-                        proposalHistory.setId(id);
-                        LOGGER.log(Level.FINE, "Proposition sauvegardée avec l'ID: {0}", id);
-                        return id;
-                    }
+            stmt.setLong(1, userId);
+            stmt.setDate(2, Date.valueOf(fromDay));
+            stmt.setDate(3, Date.valueOf(toDay));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.add(new ProposalDailyCount(
+                        rs.getLong("user_id"),
+                        rs.getString("proposal_type"),
+                        rs.getDate("stat_day").toLocalDate(),
+                        rs.getInt("shown_count"),
+                        rs.getTimestamp("last_shown_at").toLocalDateTime()
+                    ));
                 }
             }
             
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la sauvegarde de la proposition", e);
-            throw new RuntimeException("Impossible de sauvegarder la proposition", e);
+            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des cumuls quotidiens", e);
+            throw new RuntimeException("Impossible de récupérer les cumuls quotidiens", e);
         }
         
-        return null;
+        return counts;
+    }
+    
+    /**
+     * Obtient l'instant de dernière présentation de chaque type de proposition.
+     * 
+     * @param userId ID de l'utilisateur
+     * @return Instant de dernière présentation par type de proposition
+     */
+    @Override
+    public Map<String, LocalDateTime> getLastShownByType(long userId) {
+        String sql = """
+            SELECT proposal_type, MAX(last_shown_at) AS last_shown_at
+            FROM proposal_daily_counts
+            WHERE user_id = ?
+            GROUP BY proposal_type
+        """;
+        
+        Map<String, LocalDateTime> lastShown = new HashMap<>();
+        
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, userId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lastShown.put(rs.getString("proposal_type"), rs.getTimestamp("last_shown_at").toLocalDateTime());
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de la lecture des dernières présentations", e);
+            throw new RuntimeException("Impossible de lire les dernières présentations", e);
+        }
+        
+        return lastShown;
     }
     
     /**
-     * Récupère les propositions récentes.
+     * Récupère les propositions récentes d'un utilisateur.
      * 
+     * @param userId ID de l'utilisateur
      * @param hoursBack Nombre d'heures en arrière à partir de maintenant
      * @return Liste des propositions récentes
      */
-    public List<ProposalHistory> getRecentProposals(int hoursBack) {
+    @Override
+    public List<ProposalHistory> getRecentProposals(long userId, int hoursBack) {
         String sql = """
-            SELECT id, proposal_type, timestamp, activity_type, title, accepted, completion_time
+            SELECT id, user_id, proposal_type, timestamp, activity_type, title, accepted, completion_time
             FROM proposal_history
-            WHERE timestamp >= ?
+            WHERE user_id = ? AND timestamp >= ?
             ORDER BY timestamp DESC
         """;
         
@@ -97,24 +317,12 @@ public class ProposalDAO {
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setTimestamp(1, Timestamp.valueOf(cutoffTime));
+            stmt.setLong(1, userId);
+            stmt.setTimestamp(2, Timestamp.valueOf(cutoffTime));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    ProposalHistory proposal = new ProposalHistory();
-                    proposal.setId(rs.getLong("id"));
-                    proposal.setProposalType(rs.getString("proposal_type"));
-                    proposal.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                    proposal.setActivityType(rs.getString("activity_type"));
-                    proposal.setTitle(rs.getString("title"));
-                    proposal.setAccepted(rs.getBoolean("accepted"));
-                    
-                    Timestamp completionTime = rs.getTimestamp("completion_time");
-                    if (completionTime != null) {
-                        proposal.setCompletionTime(completionTime.toLocalDateTime());
-                    }
-                    
-                    proposals.add(proposal);
+                    proposals.add(mapProposal(rs));
                 }
             }
             
@@ -127,17 +335,19 @@ public class ProposalDAO {
     }
     
     /**
-     * Récupère les propositions d'un type spécifique.
+     * Récupère les propositions d'un type spécifique pour un utilisateur.
      * 
+     * @param userId ID de l'utilisateur
      * @param proposalType Type de proposition à récupérer
      * @param hoursBack Nombre d'heures en arrière à partir de maintenant
      * @return Liste des propositions du type spécifié
      */
-    public List<ProposalHistory> getProposalsByType(String proposalType, int hoursBack) {
+    @Override
+    public List<ProposalHistory> getProposalsByType(long userId, String proposalType, int hoursBack) {
         String sql = """
-            SELECT id, proposal_type, timestamp, activity_type, title, accepted, completion_time
+            SELECT id, user_id, proposal_type, timestamp, activity_type, title, accepted, completion_time
             FROM proposal_history
-            WHERE proposal_type = ? AND timestamp >= ?
+            WHERE user_id = ? AND proposal_type = ? AND timestamp >= ?
             ORDER BY timestamp DESC
         """;
         
@@ -147,25 +357,13 @@ public class ProposalDAO {
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, proposalType);
-            stmt.setTimestamp(2, Timestamp.valueOf(cutoffTime));
+            stmt.setLong(1, userId);
+            stmt.setString(2, proposalType);
+            stmt.setTimestamp(3, Timestamp.valueOf(cutoffTime));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    ProposalHistory proposal = new ProposalHistory();
-                    proposal.setId(rs.getLong("id"));
-                    proposal.setProposalType(rs.getString("proposal_type"));
-                    proposal.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                    proposal.setActivityType(rs.getString("activity_type"));
-                    proposal.setTitle(rs.getString("title"));
-                    proposal.setAccepted(rs.getBoolean("accepted"));
-                    
-                    Timestamp completionTime = rs.getTimestamp("completion_time");
-                    if (completionTime != null) {
-                        proposal.setCompletionTime(completionTime.toLocalDateTime());
-                    }
-                    
-                    proposals.add(proposal);
+                    proposals.add(mapProposal(rs));
                 }
             }
             
@@ -177,11 +375,64 @@ public class ProposalDAO {
         return proposals;
     }
     
+    /**
+     * Parcourt l'historique des propositions par ID croissant avec un curseur en
+     * lecture seule, sans construire de liste intermédiaire.
+     * 
+     * @param userId ID de l'utilisateur, ou null pour tous les utilisateurs
+     * @param action Action appelée pour chaque proposition
+     */
+    @Override
+    public void forEachProposal(Long userId, Consumer<ProposalHistory> action) {
+        String sql = """
+            SELECT id, user_id, proposal_type, timestamp, activity_type, title, accepted, completion_time
+            FROM proposal_history
+        """ + (userId != null ? " WHERE user_id = ?" : "") + " ORDER BY id";
+        
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            if (userId != null) {
+                stmt.setLong(1, userId);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapProposal(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du parcours de l'historique des propositions", e);
+            throw new RuntimeException("Impossible de parcourir l'historique des propositions", e);
+        }
+    }
+    
+    private ProposalHistory mapProposal(ResultSet rs) throws SQLException {
+        ProposalHistory proposal = new ProposalHistory();
+        proposal.setId(rs.getLong("id"));
+        proposal.setUserId(rs.getLong("user_id"));
+        proposal.setProposalType(rs.getString("proposal_type"));
+        proposal.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        proposal.setActivityType(rs.getString("activity_type"));
+        proposal.setTitle(rs.getString("title"));
+        proposal.setAccepted(rs.getBoolean("accepted"));
+        
+        Timestamp completionTime = rs.getTimestamp("completion_time");
+        if (completionTime != null) {
+            proposal.setCompletionTime(completionTime.toLocalDateTime());
+        }
+        
+        return proposal;
+    }
+    
     /**
      * Met à jour une proposition pour marquer qu'elle a été acceptée.
      * 
      * @param proposalId ID de la proposition
      */
+    @Override
     public void markProposalAsAccepted(Long proposalId) {
         String sql = "UPDATE proposal_history SET accepted = TRUE WHERE id = ?";
         
@@ -206,6 +457,7 @@ public class ProposalDAO {
      * 
      * @param proposalId ID de la proposition
      */
+    @Override
     public void markProposalAsCompleted(Long proposalId) {
         String sql = "UPDATE proposal_history SET completion_time = ? WHERE id = ?";
         
@@ -227,25 +479,107 @@ public class ProposalDAO {
     }
     
     /**
-     * Supprime les anciennes propositions au-delà d'un certain nombre de jours.
+     * Supprime les anciennes propositions au-delà d'un certain nombre de jours,
+     * par tranches bornées après les avoir cumulées dans le résumé mensuel.
      * 
      * @param daysToKeep Nombre de jours à conserver
      * @return Nombre de propositions supprimées
      */
+    @Override
     public int cleanupOldProposals(int daysToKeep) {
-        String sql = "DELETE FROM proposal_history WHERE timestamp < ?";
-        
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(daysToKeep);
         
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setTimestamp(1, Timestamp.valueOf(cutoffTime));
-            
-            int deletedRows = stmt.executeUpdate();
-            LOGGER.log(Level.INFO, "Suppression de {0} anciennes propositions", deletedRows);
+        int deletedRows = 0;
+        RetentionChunk chunk = archiveExpiredChunk(cutoffTime, 0, 1000);
+        while (chunk != null) {
+            deletedRows += chunk.deletedRows();
+            chunk = archiveExpiredChunk(cutoffTime, chunk.lastId(), 1000);
+        }
+        
+        LOGGER.log(Level.INFO, "Suppression de {0} anciennes propositions", deletedRows);
+        return deletedRows;
+    }
+    
+    /**
+     * Traite une tranche de propositions expirées : les cumule dans
+     * {@code proposal_monthly_summary} puis les supprime, dans une transaction courte.
+     * Les tranches sont délimitées par ID (pagination par clé) pour que chaque
+     * requête reste bornée, quelle que soit la taille de la table.
+     * 
+     * @param cutoffTime Les propositions antérieures à cet instant sont expirées
+     * @param afterId Ne traiter que les IDs strictement supérieurs à celui-ci
+     * @param chunkSize Nombre maximal de propositions par tranche
+     * @return Le résultat de la tranche, ou null s'il ne reste rien à traiter
+     */
+    @Override
+    public RetentionChunk archiveExpiredChunk(LocalDateTime cutoffTime, long afterId, int chunkSize) {
+        String boundSql = """
+            SELECT MAX(id) FROM (
+                SELECT id FROM proposal_history
+                WHERE id > ? AND timestamp < ?
+                ORDER BY id
+                LIMIT ?
+            )
+        """;
+        String summarySql = """
+            MERGE INTO proposal_monthly_summary t
+            USING (
+                SELECT user_id, proposal_type,
+                       CAST(DATE_TRUNC('MONTH', timestamp) AS DATE) AS stat_month,
+                       COUNT(*) AS shown_count,
+                       SUM(CASE WHEN accepted THEN 1 ELSE 0 END) AS accepted_count
+                FROM proposal_history
+                WHERE id > ? AND id <= ? AND timestamp < ?
+                GROUP BY user_id, proposal_type, CAST(DATE_TRUNC('MONTH', timestamp) AS DATE)
+            ) s
+            ON t.user_id = s.user_id AND t.proposal_type = s.proposal_type AND t.stat_month = s.stat_month
+            WHEN MATCHED THEN
+                UPDATE SET shown_count = t.shown_count + s.shown_count,
+                           accepted_count = t.accepted_count + s.accepted_count
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, proposal_type, stat_month, shown_count, accepted_count)
+                VALUES (s.user_id, s.proposal_type, s.stat_month, s.shown_count, s.accepted_count)
+        """;
+        String deleteSql = "DELETE FROM proposal_history WHERE id > ? AND id <= ? AND timestamp < ?";
+        
+        Timestamp cutoff = Timestamp.valueOf(cutoffTime);
+        
+        try (Connection conn = databaseManager.getConnection()) {
+            long upToId;
+            try (PreparedStatement stmt = conn.prepareStatement(boundSql)) {
+                stmt.setLong(1, afterId);
+                stmt.setTimestamp(2, cutoff);
+                stmt.setInt(3, chunkSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    upToId = rs.next() ? rs.getLong(1) : 0;
+                    if (rs.wasNull() || upToId == 0) {
+                        return null;
+                    }
+                }
+            }
             
-            return deletedRows;
+            conn.setAutoCommit(false);
+            try (PreparedStatement summaryStmt = conn.prepareStatement(summarySql);
+                 PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+                
+                summaryStmt.setLong(1, afterId);
+                summaryStmt.setLong(2, upToId);
+                summaryStmt.setTimestamp(3, cutoff);
+                summaryStmt.executeUpdate();
+                
+                deleteStmt.setLong(1, afterId);
+                deleteStmt.setLong(2, upToId);
+                deleteStmt.setTimestamp(3, cutoff);
+                int deletedRows = deleteStmt.executeUpdate();
+                
+                conn.commit();
+                return new RetentionChunk(upToId, deletedRows);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
             
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors du nettoyage des anciennes propositions", e);
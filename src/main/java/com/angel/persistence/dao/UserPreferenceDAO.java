@@ -1,23 +1,51 @@
 package com.angel.persistence.dao;
 
 import com.angel.persistence.DatabaseManager;
+import com.angel.persistence.repository.UserPreferenceRepository;
 import com.angel.util.LogUtil;
 
 import java.sql.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Data Access Object pour la gestion des préférences utilisateur dans la base de données.
+ * 
+ * Les préférences d'un utilisateur sont chargées une seule fois puis servies depuis
+ * un cache mémoire. Les écritures passent d'abord par la base (écriture immédiate)
+ * puis mettent à jour le cache et notifient les écouteurs enregistrés.
+ * 
+ * Le chargement se fait hors de tout verrou. Chaque écriture validée et chaque
+ * invalidation incrémentent la génération de l'utilisateur ; un chargement n'est mis
+ * en cache que si la génération n'a pas changé pendant la lecture, sans quoi il
+ * pourrait écraser une écriture plus récente.
  */
-public class UserPreferenceDAO {
+public class UserPreferenceDAO implements UserPreferenceRepository {
 
     private static final Logger LOGGER = LogUtil.getLogger(UserPreferenceDAO.class);
     
+    // Lignes lues par aller-retour lors d'un parcours complet (export)
+    private static final int EXPORT_FETCH_SIZE = 500;
+    
+    private static final String MERGE_SQL = """
+        MERGE INTO user_preferences (user_id, preference_key, preference_value, updated_at)
+        KEY (user_id, preference_key)
+        VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+    """;
+    
     private final DatabaseManager databaseManager;
     
+    // Cache par utilisateur : chaque Map est une copie immuable remplacée à chaque écriture
+    private final Map<Long, Map<String, String>> cache = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final List<PreferenceChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
     /**
      * Constructeur avec injection du gestionnaire de base de données.
      * 
@@ -27,13 +55,102 @@ public class UserPreferenceDAO {
         this.databaseManager = databaseManager;
     }
     
+    /**
+     * Enregistre un écouteur de modifications des préférences.
+     * 
+     * @param listener L'écouteur à notifier
+     */
+    @Override
+    public void addPreferenceChangeListener(PreferenceChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Retire un écouteur de modifications des préférences.
+     * 
+     * @param listener L'écouteur à retirer
+     */
+    @Override
+    public void removePreferenceChangeListener(PreferenceChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Invalide le cache d'un utilisateur ; ses préférences seront relues en base
+     * au prochain accès.
+     * 
+     * @param userId ID de l'utilisateur
+     */
+    public void invalidate(Long userId) {
+        generation(userId).incrementAndGet();
+        cache.remove(userId);
+    }
+    
+    /**
+     * Invalide le cache de tous les utilisateurs.
+     */
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        cache.clear();
+    }
+    
     /**
      * Récupère toutes les préférences d'un utilisateur.
      * 
      * @param userId ID de l'utilisateur
-     * @return Map des préférences (clé -> valeur)
+     * @return Map des préférences (clé -> valeur), modifiable par l'appelant
      */
+    @Override
     public Map<String, String> getUserPreferences(Long userId) {
+        return new HashMap<>(getCachedPreferences(userId));
+    }
+    
+    /**
+     * Récupère une préférence spécifique d'un utilisateur.
+     * 
+     * @param userId ID de l'utilisateur
+     * @param key Clé de la préférence
+     * @return Valeur de la préférence, ou null si elle n'existe pas
+     */
+    @Override
+    public String getUserPreference(Long userId, String key) {
+        return getCachedPreferences(userId).get(key);
+    }
+    
+    /**
+     * Obtient les préférences en cache d'un utilisateur, en les chargeant si besoin.
+     */
+    private Map<String, String> getCachedPreferences(Long userId) {
+        AtomicLong generation = generation(userId);
+        while (true) {
+            Map<String, String> preferences = cache.get(userId);
+            if (preferences != null) {
+                return preferences;
+            }
+            
+            long loadedGeneration = generation.get();
+            Map<String, String> loaded = Map.copyOf(loadUserPreferences(userId));
+            preferences = cache.compute(userId, (id, current) -> {
+                if (current != null) {
+                    return current;
+                }
+                return generation.get() == loadedGeneration ? loaded : null;
+            });
+            if (preferences != null) {
+                return preferences;
+            }
+            // Une écriture a eu lieu pendant le chargement : relire la base
+        }
+    }
+    
+    private AtomicLong generation(Long userId) {
+        return generations.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+    
+    /**
+     * Charge toutes les préférences d'un utilisateur depuis la base.
+     */
+    private Map<String, String> loadUserPreferences(Long userId) {
         String sql = """
             SELECT preference_key, preference_value
             FROM user_preferences
@@ -58,41 +175,41 @@ public class UserPreferenceDAO {
             throw new RuntimeException("Impossible de récupérer les préférences utilisateur", e);
         }
         
+        LOGGER.log(Level.FINE, "Préférences chargées pour l''utilisateur {0}: {1} entrées",
+                  new Object[]{userId, preferences.size()});
         return preferences;
     }
     
     /**
-     * Récupère une préférence spécifique d'un utilisateur.
+     * Parcourt les préférences en base avec un curseur en lecture seule, sans passer
+     * par le cache.
      * 
-     * @param userId ID de l'utilisateur
-     * @param key Clé de la préférence
-     * @return Valeur de la préférence, ou null si elle n'existe pas
+     * @param userId ID de l'utilisateur, ou null pour tous les utilisateurs
+     * @param action Action appelée pour chaque préférence
      */
-    public String getUserPreference(Long userId, String key) {
-        String sql = """
-            SELECT preference_value
-            FROM user_preferences
-            WHERE user_id = ? AND preference_key = ?
-        """;
+    @Override
+    public void forEachPreference(Long userId, PreferenceConsumer action) {
+        String sql = "SELECT user_id, preference_key, preference_value FROM user_preferences"
+            + (userId != null ? " WHERE user_id = ?" : "") + " ORDER BY user_id, preference_key";
         
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
-            stmt.setLong(1, userId);
-            stmt.setString(2, key);
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            if (userId != null) {
+                stmt.setLong(1, userId);
+            }
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("preference_value");
+                while (rs.next()) {
+                    action.accept(rs.getLong("user_id"), rs.getString("preference_key"), rs.getString("preference_value"));
                 }
             }
             
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de la préférence utilisateur", e);
-            throw new RuntimeException("Impossible de récupérer la préférence utilisateur", e);
+            LOGGER.log(Level.SEVERE, "Erreur lors du parcours des préférences utilisateur", e);
+            throw new RuntimeException("Impossible de parcourir les préférences utilisateur", e);
         }
-        
-        return null;
     }
     
     /**
@@ -102,65 +219,69 @@ public class UserPreferenceDAO {
      * @param key Clé de la préférence
      * @param value Valeur de la préférence
      */
+    @Override
     public void setUserPreference(Long userId, String key, String value) {
-        String sql = """
-            INSERT INTO user_preferences (user_id, preference_key, preference_value)
-            VALUES (?, ?, ?)
-            ON DUPLICATE KEY UPDATE preference_value = ?, updated_at = CURRENT_TIMESTAMP
-        """;
-        
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(MERGE_SQL)) {
             
             stmt.setLong(1, userId);
             stmt.setString(2, key);
             stmt.setString(3, value);
-            stmt.setString(4, value);
             
             stmt.executeUpdate();
             
-            LOGGER.log(Level.FINE, "Préférence mise à jour pour l'utilisateur {0}: {1} = {2}", 
+            LOGGER.log(Level.FINE, "Préférence mise à jour pour l'utilisateur {0}: {1} = {2}",
                       new Object[]{userId, key, value});
-            
+        
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la mise à jour de la préférence utilisateur", e);
             throw new RuntimeException("Impossible de mettre à jour la préférence utilisateur", e);
         }
+        
+        applyToCache(userId, Map.of(key, value));
     }
     
     /**
-     * Définit plusieurs préférences pour un utilisateur.
+     * Définit plusieurs préférences pour un utilisateur en une seule transaction.
      * 
      * @param userId ID de l'utilisateur
      * @param preferences Map des préférences à définir
      */
+    @Override
     public void setUserPreferences(Long userId, Map<String, String> preferences) {
-        String sql = """
-            INSERT INTO user_preferences (user_id, preference_key, preference_value)
-            VALUES (?, ?, ?)
-            ON DUPLICATE KEY UPDATE preference_value = ?, updated_at = CURRENT_TIMESTAMP
-        """;
+        if (preferences.isEmpty()) {
+            return;
+        }
         
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            for (Map.Entry<String, String> entry : preferences.entrySet()) {
-                stmt.setLong(1, userId);
-                stmt.setString(2, entry.getKey());
-                stmt.setString(3, entry.getValue());
-                stmt.setString(4, entry.getValue());
-                stmt.addBatch();
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(MERGE_SQL)) {
+                
+                for (Map.Entry<String, String> entry : preferences.entrySet()) {
+                    stmt.setLong(1, userId);
+                    stmt.setString(2, entry.getKey());
+                    stmt.setString(3, entry.getValue());
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-            stmt.executeBatch();
-            
-            LOGGER.log(Level.FINE, "Mise à jour de {0} préférences pour l'utilisateur {1}", 
+            LOGGER.log(Level.FINE, "Mise à jour de {0} préférences pour l'utilisateur {1}",
                       new Object[]{preferences.size(), userId});
-            
+        
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la mise à jour des préférences utilisateur", e);
             throw new RuntimeException("Impossible de mettre à jour les préférences utilisateur", e);
         }
+        
+        applyToCache(userId, preferences);
     }
     
     /**
@@ -169,6 +290,7 @@ public class UserPreferenceDAO {
      * @param userId ID de l'utilisateur
      * @param key Clé de la préférence à supprimer
      */
+    @Override
     public void removeUserPreference(Long userId, String key) {
         String sql = """
             DELETE FROM user_preferences
@@ -183,7 +305,7 @@ public class UserPreferenceDAO {
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                LOGGER.log(Level.FINE, "Préférence supprimée pour l'utilisateur {0}: {1}", 
+                LOGGER.log(Level.FINE, "Préférence supprimée pour l'utilisateur {0}: {1}",
                           new Object[]{userId, key});
             }
             
@@ -191,6 +313,10 @@ public class UserPreferenceDAO {
             LOGGER.log(Level.SEVERE, "Erreur lors de la suppression de la préférence utilisateur", e);
             throw new RuntimeException("Impossible de supprimer la préférence utilisateur", e);
         }
+        
+        Map<String, String> removed = new HashMap<>();
+        removed.put(key, null);
+        applyToCache(userId, removed);
     }
     
     /**
@@ -198,21 +324,64 @@ public class UserPreferenceDAO {
      * 
      * @param userId ID de l'utilisateur
      */
+    @Override
     public void removeAllUserPreferences(Long userId) {
         String sql = "DELETE FROM user_preferences WHERE user_id = ?";
         
+        Map<String, String> previous = getCachedPreferences(userId);
+        
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, userId);
             
             int affectedRows = stmt.executeUpdate();
-            LOGGER.log(Level.FINE, "Suppression de {0} préférences pour l'utilisateur {1}", 
+            LOGGER.log(Level.FINE, "Suppression de {0} préférences pour l'utilisateur {1}",
                       new Object[]{affectedRows, userId});
-            
+        
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la suppression des préférences utilisateur", e);
             throw new RuntimeException("Impossible de supprimer les préférences utilisateur", e);
         }
+        
+        Map<String, String> removed = new HashMap<>();
+        previous.keySet().forEach(key -> removed.put(key, null));
+        generation(userId).incrementAndGet();
+        cache.put(userId, Map.of());
+        notifyListeners(userId, removed);
+    }
+    
+    /**
+     * Applique des modifications déjà écrites en base au cache puis notifie les écouteurs.
+     * Une valeur null signifie que la préférence a été supprimée. Si les préférences de
+     * l'utilisateur ne sont pas encore en cache, elles seront chargées au prochain accès.
+     */
+    private void applyToCache(Long userId, Map<String, String> changes) {
+        // Un chargement en cours, qui a pu lire la base avant cette écriture, ne sera pas mis en cache
+        generation(userId).incrementAndGet();
+        cache.computeIfPresent(userId, (id, current) -> {
+            Map<String, String> updated = new HashMap<>(current);
+            changes.forEach((key, value) -> {
+                if (value == null) {
+                    updated.remove(key);
+                } else {
+                    updated.put(key, value);
+                }
+            });
+            return Map.copyOf(updated);
+        });
+        notifyListeners(userId, changes);
+    }
+    
+    private void notifyListeners(Long userId, Map<String, String> changes) {
+        for (PreferenceChangeListener listener : listeners) {
+            changes.forEach((key, value) -> {
+                try {
+                    listener.onPreferenceChanged(userId, key, value);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Erreur dans un écouteur de préférences", e);
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
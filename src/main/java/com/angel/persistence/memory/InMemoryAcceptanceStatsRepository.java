@@ -0,0 +1,33 @@
+package com.angel.persistence.memory;
+
+import com.angel.model.ProposalAcceptanceStat;
+import com.angel.persistence.repository.AcceptanceStatsRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stockage en mémoire des statistiques d'acceptation. La table est petite (une ligne
+ * par utilisateur, type, activité et heure) et écrite périodiquement : une map concurrente suffit.
+ */
+public class InMemoryAcceptanceStatsRepository implements AcceptanceStatsRepository {
+
+    private record StatKey(long userId, String proposalType, String activityType, int hourOfDay) {}
+
+    private final Map<StatKey, ProposalAcceptanceStat> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public List<ProposalAcceptanceStat> loadAcceptanceStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    @Override
+    public int saveAcceptanceStats(List<ProposalAcceptanceStat> toSave) {
+        for (ProposalAcceptanceStat stat : toSave) {
+            stats.put(new StatKey(stat.getUserId(), stat.getProposalType(), stat.getActivityType(), stat.getHourOfDay()), stat);
+        }
+        return toSave.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.angel.persistence.memory;
+
+import com.angel.api.dto.ActivityDTO;
+import com.angel.persistence.repository.ActivityRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Stockage en mémoire de l'historique des activités, sans aucun accès disque.
+ *
+ * Les activités sont réparties par type d'activité entre plusieurs bandes, chacune
+ * indexée par timestamp et protégée par son propre verrou. Les lectures par
+ * intervalle interrogent chaque bande puis fusionnent les résultats.
+ */
+public class InMemoryActivityRepository implements ActivityRepository {
+
+    private final LockStripes stripes;
+    private final List<NavigableMap<Long, List<ActivityDTO>>> activitiesByStripe;
+
+    /**
+     * Crée le stockage avec le nombre de bandes donné.
+     *
+     * @param stripeCount Nombre de bandes de verrous
+     */
+    public InMemoryActivityRepository(int stripeCount) {
+        this.stripes = new LockStripes(stripeCount);
+        this.activitiesByStripe = new ArrayList<>(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            activitiesByStripe.add(new TreeMap<>());
+        }
+    }
+
+    @Override
+    public int saveActivities(List<ActivityDTO> activities) {
+        for (ActivityDTO activity : activities) {
+            ActivityDTO stored = new ActivityDTO(
+                activity.getActivityType() != null ? activity.getActivityType() : "UNKNOWN",
+                activity.getTimestamp() > 0 ? activity.getTimestamp() : System.currentTimeMillis(),
+                activity.getConfidence(),
+                activity.getSource() != null ? activity.getSource() : "unknown",
+                activity.getAdditionalInfo()
+            );
+            int index = stripes.indexFor(stored.getActivityType());
+            Lock lock = stripes.lock(index).writeLock();
+            lock.lock();
+            try {
+                activitiesByStripe.get(index)
+                    .computeIfAbsent(stored.getTimestamp(), k -> new ArrayList<>(1))
+                    .add(stored);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return activities.size();
+    }
+
+    @Override
+    public List<ActivityDTO> getActivitiesBetween(long fromMillis, long toMillis, int limit) {
+        List<ActivityDTO> activities = new ArrayList<>();
+        for (int i = 0; i < stripes.size(); i++) {
+            Lock lock = stripes.lock(i).readLock();
+            lock.lock();
+            try {
+                int taken = 0;
+                for (List<ActivityDTO> sameInstant : activitiesByStripe.get(i).subMap(fromMillis, true, toMillis, false).values()) {
+                    for (ActivityDTO activity : sameInstant) {
+                        activities.add(copyOf(activity));
+                    }
+                    taken += sameInstant.size();
+                    if (taken >= limit) {
+                        break;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        activities.sort(Comparator.comparingLong(ActivityDTO::getTimestamp));
+        return activities.size() > limit ? new ArrayList<>(activities.subList(0, limit)) : activities;
+    }
+
+    @Override
+    public void forEachActivity(long fromMillis, long toMillis, Consumer<ActivityDTO> action) {
+        getActivitiesBetween(fromMillis, toMillis, Integer.MAX_VALUE).forEach(action);
+    }
+
+    @Override
+    public long countActivitiesBetween(long fromMillis, long toMillis) {
+        long count = 0;
+        for (int i = 0; i < stripes.size(); i++) {
+            Lock lock = stripes.lock(i).readLock();
+            lock.lock();
+            try {
+                for (Map.Entry<Long, List<ActivityDTO>> entry
+                        : activitiesByStripe.get(i).subMap(fromMillis, true, toMillis, false).entrySet()) {
+                    count += entry.getValue().size();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    // Les DTO sont mutables : l'appelant reçoit des copies, comme avec une lecture en base
+    private static ActivityDTO copyOf(ActivityDTO activity) {
+        return new ActivityDTO(activity.getActivityType(), activity.getTimestamp(), activity.getConfidence(),
+                               activity.getSource(), activity.getAdditionalInfo());
+    }
+}
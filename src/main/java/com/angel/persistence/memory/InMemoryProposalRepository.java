@@ -0,0 +1,401 @@
+package com.angel.persistence.memory;
+
+import com.angel.model.ProposalDailyCount;
+import com.angel.model.ProposalHistory;
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.util.LogUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stockage en mémoire de l'historique des propositions, sans aucun accès disque.
+ *
+ * Les propositions, leurs cumuls quotidiens et leurs résumés mensuels sont répartis
+ * par utilisateur entre plusieurs bandes, chacune protégée par son propre verrou
+ * lecture/écriture : deux foyers ne se bloquent jamais et les lectures d'un foyer ne
+ * parcourent que ses propres propositions et ses propres cumuls. Les IDs sont
+ * attribués par un compteur global et restent donc croissants, comme avec
+ * l'auto-incrément H2 ; un index ID -> utilisateur permet de modifier une
+ * proposition en ne verrouillant que la bande de son utilisateur.
+ */
+public class InMemoryProposalRepository implements ProposalRepository {
+
+    private static final Logger LOGGER = LogUtil.getLogger(InMemoryProposalRepository.class);
+
+    private record CountKey(long userId, String proposalType, LocalDate day) {}
+
+    // Nombre maximal de propositions copiées à la fois lors d'un export
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
+    private static final NavigableMap<LocalDate, Map<String, ProposalDailyCount>> EMPTY_DAILY_COUNTS =
+        Collections.unmodifiableNavigableMap(new TreeMap<>());
+
+    private static final class Stripe {
+        final Map<Long, NavigableMap<Long, ProposalHistory>> proposalsByUser = new HashMap<>();
+        // Par utilisateur, puis par jour et par type
+        final Map<Long, NavigableMap<LocalDate, Map<String, ProposalDailyCount>>> dailyCountsByUser = new HashMap<>();
+        final Map<CountKey, long[]> monthlySummaries = new HashMap<>();
+    }
+
+    private final LockStripes stripes;
+    private final List<Stripe> stripeData;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, Long> userIdsByProposalId = new ConcurrentHashMap<>();
+
+    /**
+     * Crée le stockage avec le nombre de bandes donné.
+     *
+     * @param stripeCount Nombre de bandes de verrous
+     */
+    public InMemoryProposalRepository(int stripeCount) {
+        this.stripes = new LockStripes(stripeCount);
+        this.stripeData = new ArrayList<>(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            stripeData.add(new Stripe());
+        }
+    }
+
+    @Override
+    public Long saveProposal(ProposalHistory proposalHistory) {
+        long id = nextId.getAndIncrement();
+        int index = stripes.indexFor(proposalHistory.getUserId());
+        Lock lock = stripes.lock(index).writeLock();
+        lock.lock();
+        try {
+            Stripe stripe = stripeData.get(index);
+            stripe.proposalsByUser.computeIfAbsent(proposalHistory.getUserId(), k -> new TreeMap<>())
+                .put(id, copyOf(proposalHistory, id));
+            incrementDailyCount(stripe, proposalHistory);
+            userIdsByProposalId.put(id, proposalHistory.getUserId());
+        } finally {
+            lock.unlock();
+        }
+        proposalHistory.setId(id);
+        return id;
+    }
+
+    @Override
+    public int saveProposals(List<ProposalHistory> proposals) {
+        for (ProposalHistory proposalHistory : proposals) {
+            saveProposal(proposalHistory);
+        }
+        return proposals.size();
+    }
+
+    private void incrementDailyCount(Stripe stripe, ProposalHistory proposalHistory) {
+        LocalDateTime shownAt = proposalHistory.getTimestamp();
+        long userId = proposalHistory.getUserId();
+        String proposalType = proposalHistory.getProposalType();
+        LocalDate day = shownAt.toLocalDate();
+        stripe.dailyCountsByUser.computeIfAbsent(userId, k -> new TreeMap<>())
+            .computeIfAbsent(day, k -> new TreeMap<>())
+            .merge(proposalType,
+                new ProposalDailyCount(userId, proposalType, day, 1, shownAt),
+                (current, added) -> new ProposalDailyCount(userId, proposalType, day,
+                    current.getCount() + 1,
+                    current.getLastShownAt().isAfter(shownAt) ? current.getLastShownAt() : shownAt));
+    }
+
+    @Override
+    public int getDailyCount(long userId, String proposalType, LocalDate day) {
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            Map<String, ProposalDailyCount> counts = dailyCountsOf(stripeData.get(index), userId).get(day);
+            ProposalDailyCount count = counts == null ? null : counts.get(proposalType);
+            return count == null ? 0 : count.getCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ProposalDailyCount> getDailyCounts(long userId, LocalDate fromDay, LocalDate toDay) {
+        List<ProposalDailyCount> counts = new ArrayList<>();
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            // Jours puis types triés : la liste sort dans l'ordre attendu
+            for (Map<String, ProposalDailyCount> dayCounts
+                    : dailyCountsOf(stripeData.get(index), userId).subMap(fromDay, true, toDay, true).values()) {
+                counts.addAll(dayCounts.values());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, LocalDateTime> getLastShownByType(long userId) {
+        Map<String, LocalDateTime> lastShown = new HashMap<>();
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            // Du jour le plus récent au plus ancien : le premier cumul d'un type est le dernier
+            for (Map<String, ProposalDailyCount> dayCounts
+                    : dailyCountsOf(stripeData.get(index), userId).descendingMap().values()) {
+                for (ProposalDailyCount count : dayCounts.values()) {
+                    lastShown.putIfAbsent(count.getProposalType(), count.getLastShownAt());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return lastShown;
+    }
+
+    private static NavigableMap<LocalDate, Map<String, ProposalDailyCount>> dailyCountsOf(Stripe stripe, long userId) {
+        NavigableMap<LocalDate, Map<String, ProposalDailyCount>> counts = stripe.dailyCountsByUser.get(userId);
+        return counts != null ? counts : EMPTY_DAILY_COUNTS;
+    }
+
+    @Override
+    public List<ProposalHistory> getRecentProposals(long userId, int hoursBack) {
+        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hoursBack);
+        List<ProposalHistory> proposals = new ArrayList<>();
+        collectSince(userId, null, cutoffTime, proposals);
+        proposals.sort(Comparator.comparing(ProposalHistory::getTimestamp).reversed());
+        return proposals;
+    }
+
+    @Override
+    public List<ProposalHistory> getProposalsByType(long userId, String proposalType, int hoursBack) {
+        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hoursBack);
+        List<ProposalHistory> proposals = new ArrayList<>();
+        collectSince(userId, proposalType, cutoffTime, proposals);
+        proposals.sort(Comparator.comparing(ProposalHistory::getTimestamp).reversed());
+        return proposals;
+    }
+
+    private void collectSince(long userId, String proposalType, LocalDateTime cutoffTime, List<ProposalHistory> target) {
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            NavigableMap<Long, ProposalHistory> proposals = stripeData.get(index).proposalsByUser.get(userId);
+            if (proposals == null) {
+                return;
+            }
+            for (ProposalHistory proposal : proposals.values()) {
+                if (!proposal.getTimestamp().isBefore(cutoffTime)
+                        && (proposalType == null || proposalType.equals(proposal.getProposalType()))) {
+                    target.add(copyOf(proposal, proposal.getId()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void forEachProposal(Long userId, Consumer<ProposalHistory> action) {
+        // Parcours par tranches d'IDs consécutifs : chaque tranche est copiée sous les
+        // verrous de lecture puis transmise hors verrou, l'action pouvant être lente
+        // (écriture réseau). La mémoire utilisée reste bornée par la taille d'une tranche.
+        long afterId = 0;
+        while (true) {
+            long firstId = Long.MAX_VALUE;
+            for (int i = 0; i < stripes.size(); i++) {
+                if (userId != null && i != stripes.indexFor(userId)) {
+                    continue;
+                }
+                Lock lock = stripes.lock(i).readLock();
+                lock.lock();
+                try {
+                    for (NavigableMap<Long, ProposalHistory> proposals : proposalsOf(stripeData.get(i), userId)) {
+                        Long next = proposals.higherKey(afterId);
+                        if (next != null && next < firstId) {
+                            firstId = next;
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (firstId == Long.MAX_VALUE) {
+                return;
+            }
+
+            // Les IDs sont uniques : la tranche contient au plus EXPORT_CHUNK_SIZE propositions
+            long upToId = firstId + EXPORT_CHUNK_SIZE - 1;
+            List<ProposalHistory> chunk = new ArrayList<>();
+            for (int i = 0; i < stripes.size(); i++) {
+                if (userId != null && i != stripes.indexFor(userId)) {
+                    continue;
+                }
+                Lock lock = stripes.lock(i).readLock();
+                lock.lock();
+                try {
+                    for (NavigableMap<Long, ProposalHistory> proposals : proposalsOf(stripeData.get(i), userId)) {
+                        for (ProposalHistory proposal : proposals.subMap(afterId, false, upToId, true).values()) {
+                            chunk.add(copyOf(proposal, proposal.getId()));
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            chunk.sort(Comparator.comparing(ProposalHistory::getId));
+            chunk.forEach(action);
+            afterId = upToId;
+        }
+    }
+
+    /**
+     * Propositions d'une bande, de tous ses utilisateurs ou d'un seul. Appelé sous le
+     * verrou de la bande.
+     */
+    private static Collection<NavigableMap<Long, ProposalHistory>> proposalsOf(Stripe stripe, Long userId) {
+        if (userId == null) {
+            return stripe.proposalsByUser.values();
+        }
+        NavigableMap<Long, ProposalHistory> proposals = stripe.proposalsByUser.get(userId);
+        return proposals != null ? List.of(proposals) : List.of();
+    }
+
+    @Override
+    public void markProposalAsAccepted(Long proposalId) {
+        if (updateProposal(proposalId, proposal -> proposal.setAccepted(true))) {
+            LOGGER.log(Level.FINE, "Proposition {0} marquée comme acceptée", proposalId);
+        }
+    }
+
+    @Override
+    public void markProposalAsCompleted(Long proposalId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (updateProposal(proposalId, proposal -> proposal.setCompletionTime(now))) {
+            LOGGER.log(Level.FINE, "Proposition {0} marquée comme complétée", proposalId);
+        }
+    }
+
+    /**
+     * Applique une modification à la proposition d'ID donné, sous le seul verrou de la
+     * bande de son utilisateur.
+     */
+    private boolean updateProposal(Long proposalId, Consumer<ProposalHistory> update) {
+        Long userId = userIdsByProposalId.get(proposalId);
+        if (userId == null) {
+            return false;
+        }
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).writeLock();
+        lock.lock();
+        try {
+            NavigableMap<Long, ProposalHistory> proposals = stripeData.get(index).proposalsByUser.get(userId);
+            ProposalHistory proposal = proposals != null ? proposals.get(proposalId) : null;
+            if (proposal == null) {
+                return false;
+            }
+            update.accept(proposal);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int cleanupOldProposals(int daysToKeep) {
+        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(daysToKeep);
+
+        int deletedRows = 0;
+        RetentionChunk chunk = archiveExpiredChunk(cutoffTime, 0, 1000);
+        while (chunk != null) {
+            deletedRows += chunk.deletedRows();
+            chunk = archiveExpiredChunk(cutoffTime, chunk.lastId(), 1000);
+        }
+
+        LOGGER.log(Level.INFO, "Suppression de {0} anciennes propositions", deletedRows);
+        return deletedRows;
+    }
+
+    @Override
+    public RetentionChunk archiveExpiredChunk(LocalDateTime cutoffTime, long afterId, int chunkSize) {
+        // Borne de la tranche : le chunkSize-ième ID expiré, toutes bandes confondues
+        List<Long> expiredIds = new ArrayList<>();
+        for (int i = 0; i < stripes.size(); i++) {
+            Lock lock = stripes.lock(i).readLock();
+            lock.lock();
+            try {
+                for (NavigableMap<Long, ProposalHistory> proposals : stripeData.get(i).proposalsByUser.values()) {
+                    int taken = 0;
+                    for (ProposalHistory proposal : proposals.tailMap(afterId, false).values()) {
+                        if (proposal.getTimestamp().isBefore(cutoffTime)) {
+                            expiredIds.add(proposal.getId());
+                            if (++taken == chunkSize) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (expiredIds.isEmpty()) {
+            return null;
+        }
+        expiredIds.sort(null);
+        long upToId = expiredIds.get(Math.min(chunkSize, expiredIds.size()) - 1);
+
+        int deletedRows = 0;
+        for (int i = 0; i < stripes.size(); i++) {
+            Lock lock = stripes.lock(i).writeLock();
+            lock.lock();
+            try {
+                Stripe stripe = stripeData.get(i);
+                for (NavigableMap<Long, ProposalHistory> proposals : stripe.proposalsByUser.values()) {
+                    Iterator<ProposalHistory> it = proposals.subMap(afterId, false, upToId, true).values().iterator();
+                    while (it.hasNext()) {
+                        ProposalHistory proposal = it.next();
+                        if (proposal.getTimestamp().isBefore(cutoffTime)) {
+                            CountKey month = new CountKey(proposal.getUserId(), proposal.getProposalType(),
+                                                          proposal.getTimestamp().toLocalDate().withDayOfMonth(1));
+                            long[] summary = stripe.monthlySummaries.computeIfAbsent(month, k -> new long[2]);
+                            summary[0]++;
+                            if (proposal.isAccepted()) {
+                                summary[1]++;
+                            }
+                            it.remove();
+                            userIdsByProposalId.remove(proposal.getId());
+                            deletedRows++;
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new RetentionChunk(upToId, deletedRows);
+    }
+
+    private static ProposalHistory copyOf(ProposalHistory proposal, Long id) {
+        ProposalHistory copy = new ProposalHistory(proposal.getUserId(), proposal.getProposalType(),
+                                                   proposal.getActivityType(), proposal.getTitle());
+        copy.setId(id);
+        copy.setTimestamp(proposal.getTimestamp());
+        copy.setAccepted(proposal.isAccepted());
+        copy.setCompletionTime(proposal.getCompletionTime());
+        return copy;
+    }
+}
@@ -0,0 +1,174 @@
+package com.angel.persistence.memory;
+
+import com.angel.persistence.repository.UserPreferenceRepository;
+import com.angel.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stockage en mémoire des préférences utilisateur, sans aucun accès disque.
+ *
+ * Les utilisateurs sont répartis entre plusieurs bandes protégées chacune par son
+ * propre verrou lecture/écriture. Les écouteurs sont notifiés hors verrou, après
+ * l'écriture, comme avec {@link com.angel.persistence.dao.UserPreferenceDAO}.
+ */
+public class InMemoryUserPreferenceRepository implements UserPreferenceRepository {
+
+    private static final Logger LOGGER = LogUtil.getLogger(InMemoryUserPreferenceRepository.class);
+
+    private final LockStripes stripes;
+    private final List<Map<Long, Map<String, String>>> preferencesByStripe;
+    private final List<PreferenceChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Crée le stockage avec le nombre de bandes donné.
+     *
+     * @param stripeCount Nombre de bandes de verrous
+     */
+    public InMemoryUserPreferenceRepository(int stripeCount) {
+        this.stripes = new LockStripes(stripeCount);
+        this.preferencesByStripe = new ArrayList<>(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            preferencesByStripe.add(new HashMap<>());
+        }
+    }
+
+    @Override
+    public void addPreferenceChangeListener(PreferenceChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removePreferenceChangeListener(PreferenceChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public Map<String, String> getUserPreferences(Long userId) {
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            Map<String, String> preferences = preferencesByStripe.get(index).get(userId);
+            return preferences == null ? new HashMap<>() : new HashMap<>(preferences);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getUserPreference(Long userId, String key) {
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).readLock();
+        lock.lock();
+        try {
+            Map<String, String> preferences = preferencesByStripe.get(index).get(userId);
+            return preferences == null ? null : preferences.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void forEachPreference(Long userId, PreferenceConsumer action) {
+        for (int i = 0; i < stripes.size(); i++) {
+            if (userId != null && i != stripes.indexFor(userId)) {
+                continue;
+            }
+            Map<Long, Map<String, String>> snapshot = new HashMap<>();
+            Lock lock = stripes.lock(i).readLock();
+            lock.lock();
+            try {
+                preferencesByStripe.get(i).forEach((id, preferences) -> {
+                    if (userId == null || userId.equals(id)) {
+                        snapshot.put(id, new HashMap<>(preferences));
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+            snapshot.forEach((id, preferences) -> preferences.forEach((key, value) -> action.accept(id, key, value)));
+        }
+    }
+
+    @Override
+    public void setUserPreference(Long userId, String key, String value) {
+        setUserPreferences(userId, Map.of(key, value));
+    }
+
+    @Override
+    public void setUserPreferences(Long userId, Map<String, String> preferences) {
+        if (preferences.isEmpty()) {
+            return;
+        }
+        apply(userId, preferences);
+    }
+
+    @Override
+    public void removeUserPreference(Long userId, String key) {
+        Map<String, String> removed = new HashMap<>();
+        removed.put(key, null);
+        apply(userId, removed);
+    }
+
+    @Override
+    public void removeAllUserPreferences(Long userId) {
+        int index = stripes.indexFor(userId);
+        Map<String, String> previous;
+        Lock lock = stripes.lock(index).writeLock();
+        lock.lock();
+        try {
+            previous = preferencesByStripe.get(index).remove(userId);
+        } finally {
+            lock.unlock();
+        }
+
+        if (previous != null) {
+            Map<String, String> removed = new HashMap<>();
+            previous.keySet().forEach(key -> removed.put(key, null));
+            notifyListeners(userId, removed);
+        }
+    }
+
+    /**
+     * Applique des modifications sous le verrou de la bande de l'utilisateur puis
+     * notifie les écouteurs. Une valeur null signifie que la préférence est supprimée.
+     */
+    private void apply(Long userId, Map<String, String> changes) {
+        int index = stripes.indexFor(userId);
+        Lock lock = stripes.lock(index).writeLock();
+        lock.lock();
+        try {
+            Map<String, String> preferences = preferencesByStripe.get(index).computeIfAbsent(userId, id -> new HashMap<>());
+            changes.forEach((key, value) -> {
+                if (value == null) {
+                    preferences.remove(key);
+                } else {
+                    preferences.put(key, value);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(userId, changes);
+    }
+
+    private void notifyListeners(Long userId, Map<String, String> changes) {
+        for (PreferenceChangeListener listener : listeners) {
+            changes.forEach((key, value) -> {
+                try {
+                    listener.onPreferenceChanged(userId, key, value);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Erreur dans un écouteur de préférences", e);
+                }
+            });
+        }
+    }
+}
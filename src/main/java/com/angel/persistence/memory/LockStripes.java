@@ -0,0 +1,41 @@
+package com.angel.persistence.memory;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ensemble de verrous lecture/écriture répartis par clé. Deux clés de bandes
+ * différentes ne se bloquent jamais ; les lectures d'une même bande sont concurrentes.
+ */
+final class LockStripes {
+
+    private final ReentrantReadWriteLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes Nombre de bandes souhaité, arrondi à la puissance de deux supérieure
+     */
+    LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        this.locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        this.mask = size - 1;
+    }
+
+    int size() {
+        return locks.length;
+    }
+
+    /**
+     * Indice de la bande d'une clé.
+     */
+    int indexFor(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    ReentrantReadWriteLock lock(int index) {
+        return locks[index];
+    }
+}
@@ -0,0 +1,31 @@
+package com.angel.persistence.repository;
+
+import com.angel.model.ProposalAcceptanceStat;
+
+import java.util.List;
+
+/**
+ * Stockage des statistiques d'acceptation des propositions, par utilisateur, type de
+ * proposition, activité et heure de la journée.
+ *
+ * Implémentations : {@link com.angel.persistence.dao.AcceptanceStatsDAO} (H2/JDBC) et
+ * {@link com.angel.persistence.memory.InMemoryAcceptanceStatsRepository} (mémoire).
+ */
+public interface AcceptanceStatsRepository {
+
+    /**
+     * Charge toutes les statistiques enregistrées.
+     *
+     * @return Liste des statistiques
+     */
+    List<ProposalAcceptanceStat> loadAcceptanceStats();
+
+    /**
+     * Enregistre des statistiques, en remplaçant celles de même clé
+     * (utilisateur, type, activité, heure).
+     *
+     * @param stats Statistiques à enregistrer
+     * @return Nombre de statistiques enregistrées
+     */
+    int saveAcceptanceStats(List<ProposalAcceptanceStat> stats);
+}
@@ -0,0 +1,52 @@
+package com.angel.persistence.repository;
+
+import com.angel.api.dto.ActivityDTO;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stockage de l'historique des activités détectées.
+ *
+ * Implémentations : {@link com.angel.persistence.dao.ActivityDAO} (H2/JDBC) et
+ * {@link com.angel.persistence.memory.InMemoryActivityRepository} (mémoire).
+ */
+public interface ActivityRepository {
+
+    /**
+     * Sauvegarde un lot d'activités.
+     *
+     * @param activities Les activités à sauvegarder
+     * @return Nombre d'activités sauvegardées
+     */
+    int saveActivities(List<ActivityDTO> activities);
+
+    /**
+     * Récupère les activités détectées dans un intervalle de temps, par ordre chronologique.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @param limit Nombre maximal d'activités retournées
+     * @return Liste des activités de l'intervalle
+     */
+    List<ActivityDTO> getActivitiesBetween(long fromMillis, long toMillis, int limit);
+
+    /**
+     * Parcourt par ordre chronologique les activités d'un intervalle de temps sans les
+     * charger en mémoire, pour l'export.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @param action Action appelée pour chaque activité
+     */
+    void forEachActivity(long fromMillis, long toMillis, Consumer<ActivityDTO> action);
+
+    /**
+     * Compte les activités détectées dans un intervalle de temps.
+     *
+     * @param fromMillis Début de l'intervalle inclus (millisecondes depuis l'epoch)
+     * @param toMillis Fin de l'intervalle exclue (millisecondes depuis l'epoch)
+     * @return Nombre d'activités de l'intervalle
+     */
+    long countActivitiesBetween(long fromMillis, long toMillis);
+}
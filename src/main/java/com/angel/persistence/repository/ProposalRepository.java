@@ -0,0 +1,137 @@
+package com.angel.persistence.repository;
+
+import com.angel.model.ProposalDailyCount;
+import com.angel.model.ProposalHistory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Stockage de l'historique des propositions et de ses cumuls quotidiens.
+ *
+ * Implémentations : {@link com.angel.persistence.dao.ProposalDAO} (H2/JDBC) et
+ * {@link com.angel.persistence.memory.InMemoryProposalRepository} (mémoire).
+ */
+public interface ProposalRepository {
+
+    /**
+     * Résultat du traitement d'une tranche de rétention.
+     *
+     * @param lastId Plus grand ID traité, point de reprise de la tranche suivante
+     * @param deletedRows Nombre de propositions supprimées dans la tranche
+     */
+    record RetentionChunk(long lastId, int deletedRows) {
+    }
+
+    /**
+     * Sauvegarde une proposition et met à jour le compteur quotidien correspondant.
+     * La proposition est rattachée à l'utilisateur indiqué par {@link ProposalHistory#getUserId()}.
+     *
+     * @param proposalHistory L'historique de proposition à sauvegarder
+     * @return L'ID généré pour la proposition
+     */
+    Long saveProposal(ProposalHistory proposalHistory);
+
+    /**
+     * Sauvegarde un lot de propositions, compteurs quotidiens compris.
+     *
+     * @param proposals Les historiques de proposition à sauvegarder
+     * @return Nombre de propositions sauvegardées
+     */
+    int saveProposals(List<ProposalHistory> proposals);
+
+    /**
+     * Obtient le nombre de propositions d'un type présentées un jour donné.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition
+     * @param day Jour concerné
+     * @return Nombre de propositions présentées ce jour-là
+     */
+    int getDailyCount(long userId, String proposalType, LocalDate day);
+
+    /**
+     * Récupère les cumuls quotidiens de propositions sur une période, par jour puis par type.
+     *
+     * @param userId ID de l'utilisateur
+     * @param fromDay Premier jour inclus
+     * @param toDay Dernier jour inclus
+     * @return Liste des cumuls quotidiens
+     */
+    List<ProposalDailyCount> getDailyCounts(long userId, LocalDate fromDay, LocalDate toDay);
+
+    /**
+     * Obtient l'instant de dernière présentation de chaque type de proposition, lu dans
+     * les cumuls quotidiens (conservés au-delà de la rétention de l'historique).
+     *
+     * @param userId ID de l'utilisateur
+     * @return Instant de dernière présentation par type de proposition
+     */
+    Map<String, LocalDateTime> getLastShownByType(long userId);
+
+    /**
+     * Récupère les propositions récentes d'un utilisateur, de la plus récente à la plus ancienne.
+     * Le coût dépend du seul historique de cet utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param hoursBack Nombre d'heures en arrière à partir de maintenant
+     * @return Liste des propositions récentes
+     */
+    List<ProposalHistory> getRecentProposals(long userId, int hoursBack);
+
+    /**
+     * Récupère les propositions récentes d'un type pour un utilisateur, de la plus
+     * récente à la plus ancienne.
+     *
+     * @param userId ID de l'utilisateur
+     * @param proposalType Type de proposition à récupérer
+     * @param hoursBack Nombre d'heures en arrière à partir de maintenant
+     * @return Liste des propositions du type spécifié
+     */
+    List<ProposalHistory> getProposalsByType(long userId, String proposalType, int hoursBack);
+
+    /**
+     * Parcourt l'historique des propositions par ID croissant sans le charger en mémoire,
+     * pour l'export.
+     *
+     * @param userId ID de l'utilisateur, ou null pour tous les utilisateurs
+     * @param action Action appelée pour chaque proposition
+     */
+    void forEachProposal(Long userId, Consumer<ProposalHistory> action);
+
+    /**
+     * Marque une proposition comme acceptée.
+     *
+     * @param proposalId ID de la proposition
+     */
+    void markProposalAsAccepted(Long proposalId);
+
+    /**
+     * Marque une proposition comme complétée.
+     *
+     * @param proposalId ID de la proposition
+     */
+    void markProposalAsCompleted(Long proposalId);
+
+    /**
+     * Supprime les propositions au-delà d'un certain nombre de jours.
+     *
+     * @param daysToKeep Nombre de jours à conserver
+     * @return Nombre de propositions supprimées
+     */
+    int cleanupOldProposals(int daysToKeep);
+
+    /**
+     * Traite une tranche de propositions expirées d'IDs strictement supérieurs à
+     * {@code afterId} : les cumule dans le résumé mensuel puis les supprime.
+     *
+     * @param cutoffTime Les propositions antérieures à cet instant sont expirées
+     * @param afterId Ne traiter que les IDs strictement supérieurs à celui-ci
+     * @param chunkSize Nombre maximal de propositions par tranche
+     * @return Le résultat de la tranche, ou null s'il ne reste rien à traiter
+     */
+    RetentionChunk archiveExpiredChunk(LocalDateTime cutoffTime, long afterId, int chunkSize);
+}
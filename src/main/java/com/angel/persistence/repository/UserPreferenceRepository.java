@@ -0,0 +1,113 @@
+package com.angel.persistence.repository;
+
+import java.util.Map;
+
+/**
+ * Stockage des préférences utilisateur.
+ *
+ * Implémentations : {@link com.angel.persistence.dao.UserPreferenceDAO} (H2/JDBC) et
+ * {@link com.angel.persistence.memory.InMemoryUserPreferenceRepository} (mémoire).
+ */
+public interface UserPreferenceRepository {
+
+    /**
+     * Écouteur notifié à chaque modification d'une préférence.
+     */
+    @FunctionalInterface
+    interface PreferenceChangeListener {
+
+        /**
+         * Appelé après l'écriture d'une préférence.
+         *
+         * @param userId ID de l'utilisateur
+         * @param key Clé de la préférence
+         * @param value Nouvelle valeur, ou null si la préférence a été supprimée
+         */
+        void onPreferenceChanged(Long userId, String key, String value);
+    }
+
+    /**
+     * Action appelée pour chaque préférence lors d'un parcours.
+     */
+    @FunctionalInterface
+    interface PreferenceConsumer {
+
+        /**
+         * @param userId ID de l'utilisateur
+         * @param key Clé de la préférence
+         * @param value Valeur de la préférence
+         */
+        void accept(Long userId, String key, String value);
+    }
+
+    /**
+     * Enregistre un écouteur de modifications des préférences.
+     *
+     * @param listener L'écouteur à notifier
+     */
+    void addPreferenceChangeListener(PreferenceChangeListener listener);
+
+    /**
+     * Retire un écouteur de modifications des préférences.
+     *
+     * @param listener L'écouteur à retirer
+     */
+    void removePreferenceChangeListener(PreferenceChangeListener listener);
+
+    /**
+     * Récupère toutes les préférences d'un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @return Map des préférences (clé -> valeur), modifiable par l'appelant
+     */
+    Map<String, String> getUserPreferences(Long userId);
+
+    /**
+     * Récupère une préférence spécifique d'un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param key Clé de la préférence
+     * @return Valeur de la préférence, ou null si elle n'existe pas
+     */
+    String getUserPreference(Long userId, String key);
+
+    /**
+     * Parcourt les préférences stockées sans les charger toutes en mémoire, pour l'export.
+     *
+     * @param userId ID de l'utilisateur, ou null pour tous les utilisateurs
+     * @param action Action appelée pour chaque préférence
+     */
+    void forEachPreference(Long userId, PreferenceConsumer action);
+
+    /**
+     * Définit une préférence pour un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param key Clé de la préférence
+     * @param value Valeur de la préférence
+     */
+    void setUserPreference(Long userId, String key, String value);
+
+    /**
+     * Définit plusieurs préférences pour un utilisateur en une seule opération.
+     *
+     * @param userId ID de l'utilisateur
+     * @param preferences Map des préférences à définir
+     */
+    void setUserPreferences(Long userId, Map<String, String> preferences);
+
+    /**
+     * Supprime une préférence d'un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @param key Clé de la préférence à supprimer
+     */
+    void removeUserPreference(Long userId, String key);
+
+    /**
+     * Supprime toutes les préférences d'un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     */
+    void removeAllUserPreferences(Long userId);
+}
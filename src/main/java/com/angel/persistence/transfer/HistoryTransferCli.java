@@ -0,0 +1,69 @@
+package com.angel.persistence.transfer;
+
+import com.angel.config.ConfigManager;
+import com.angel.persistence.PersistenceBackend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Export et import de l'historique en ligne de commande, sans démarrer l'application.
+ *
+ * <pre>
+ * java -cp angel-virtual-assistant.jar com.angel.persistence.transfer.HistoryTransferCli \
+ *     export|import &lt;proposals|preferences|activities&gt; &lt;ndjson|csv&gt; &lt;fichier|-&gt; [userId]
+ * </pre>
+ *
+ * Le fichier {@code -} désigne la sortie (export) ou l'entrée (import) standard.
+ * La base utilisée est celle de {@code config/application.properties}.
+ */
+public final class HistoryTransferCli {
+
+    private HistoryTransferCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4 || !("export".equals(args[0]) || "import".equals(args[0]))) {
+            System.err.println("Usage : HistoryTransferCli export|import <proposals|preferences|activities> "
+                               + "<ndjson|csv> <fichier|-> [userId]");
+            System.exit(2);
+        }
+
+        TransferDataset dataset = TransferDataset.fromName(args[1]);
+        TransferFormat format = TransferFormat.fromName(args[2]);
+        String file = args[3];
+        Long userId = args.length > 4 ? Long.valueOf(args[4]) : null;
+
+        ConfigManager configManager = new ConfigManager();
+        PersistenceBackend backend = PersistenceBackend.create(configManager);
+        try {
+            HistoryTransferService service = new HistoryTransferService(
+                backend.getProposalRepository(),
+                backend.getUserPreferenceRepository(),
+                backend.getActivityRepository(),
+                configManager.getInt("database.transfer.batch-size", 500));
+
+            long rows;
+            if ("export".equals(args[0])) {
+                try (OutputStream out = "-".equals(file)
+                        ? new BufferedOutputStream(System.out)
+                        : new BufferedOutputStream(new FileOutputStream(file))) {
+                    rows = service.export(dataset, format, userId, out);
+                }
+            } else {
+                try (InputStream in = "-".equals(file)
+                        ? new BufferedInputStream(System.in)
+                        : new BufferedInputStream(new FileInputStream(file))) {
+                    rows = service.importData(dataset, format, in);
+                }
+            }
+            System.err.println(args[0] + " " + dataset.getName() + " : " + rows + " lignes");
+        } finally {
+            backend.close();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.angel.persistence.transfer;
+
+import com.angel.api.dto.ActivityDTO;
+import com.angel.model.ProposalHistory;
+import com.angel.persistence.repository.ActivityRepository;
+import com.angel.persistence.repository.ProposalRepository;
+import com.angel.persistence.repository.UserPreferenceRepository;
+import com.angel.util.LogUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Export et import en flux de l'historique (propositions, préférences, activités)
+ * aux formats NDJSON et CSV.
+ *
+ * L'export parcourt le stockage avec un curseur et écrit chaque ligne directement
+ * dans le flux de sortie : la mémoire utilisée ne dépend pas du nombre de lignes.
+ * L'import lit le flux ligne à ligne et écrit par lots via les stockages. Les IDs
+ * de propositions exportés sont informatifs : à l'import, de nouveaux IDs sont
+ * attribués par le stockage de destination.
+ */
+public class HistoryTransferService {
+
+    private static final Logger LOGGER = LogUtil.getLogger(HistoryTransferService.class);
+
+    private final ProposalRepository proposalRepository;
+    private final UserPreferenceRepository userPreferenceRepository;
+    private final ActivityRepository activityRepository;
+    private final int importBatchSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Constructeur avec injection des stockages.
+     *
+     * @param proposalRepository Stockage de l'historique des propositions
+     * @param userPreferenceRepository Stockage des préférences utilisateur
+     * @param activityRepository Stockage des activités détectées
+     * @param importBatchSize Nombre de lignes écrites par lot lors d'un import
+     */
+    public HistoryTransferService(ProposalRepository proposalRepository,
+                                  UserPreferenceRepository userPreferenceRepository,
+                                  ActivityRepository activityRepository,
+                                  int importBatchSize) {
+        this.proposalRepository = proposalRepository;
+        this.userPreferenceRepository = userPreferenceRepository;
+        this.activityRepository = activityRepository;
+        this.importBatchSize = Math.max(1, importBatchSize);
+    }
+
+    /**
+     * Exporte un jeu de données dans un flux de sortie. Le flux n'est pas fermé.
+     *
+     * @param dataset Jeu de données à exporter
+     * @param format Format d'écriture
+     * @param userId Utilisateur à exporter, ou null pour tous (ignoré pour les activités)
+     * @param out Flux de destination
+     * @return Nombre de lignes exportées
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long export(TransferDataset dataset, TransferFormat format, Long userId, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == TransferFormat.NDJSON
+            ? new NdjsonRowWriter(out, dataset.getColumns())
+            : new CsvRowWriter(out, dataset.getColumns());
+        long[] rows = {0};
+
+        try {
+            switch (dataset) {
+                case PROPOSALS -> proposalRepository.forEachProposal(userId, proposal -> {
+                    writer.write(new Object[]{
+                        proposal.getId(), proposal.getUserId(), proposal.getProposalType(),
+                        proposal.getTimestamp().toString(), proposal.getActivityType(), proposal.getTitle(),
+                        proposal.isAccepted(),
+                        proposal.getCompletionTime() != null ? proposal.getCompletionTime().toString() : null
+                    });
+                    rows[0]++;
+                });
+                case PREFERENCES -> userPreferenceRepository.forEachPreference(userId, (id, key, value) -> {
+                    writer.write(new Object[]{id, key, value});
+                    rows[0]++;
+                });
+                case ACTIVITIES -> activityRepository.forEachActivity(0, Long.MAX_VALUE, activity -> {
+                    writer.write(new Object[]{
+                        activity.getActivityType(), activity.getTimestamp(), activity.getConfidence(),
+                        activity.getSource(), activity.getAdditionalInfo()
+                    });
+                    rows[0]++;
+                });
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        LOGGER.log(Level.INFO, "Export {0} ({1}) : {2} lignes en {3}ms",
+                   new Object[]{dataset.getName(), format.getExtension(), rows[0], System.currentTimeMillis() - start});
+        return rows[0];
+    }
+
+    /**
+     * Importe un jeu de données depuis un flux d'entrée, par lots. Le flux n'est pas fermé.
+     *
+     * @param dataset Jeu de données à importer
+     * @param format Format de lecture
+     * @param in Flux source
+     * @return Nombre de lignes importées
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException si une ligne est invalide
+     */
+    public long importData(TransferDataset dataset, TransferFormat format, InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecordReader records = format == TransferFormat.NDJSON
+            ? new NdjsonRecordReader(reader)
+            : new CsvRecordReader(reader);
+
+        long rows = 0;
+        List<Map<String, String>> batch = new ArrayList<>(importBatchSize);
+        Map<String, String> record;
+        while ((record = records.next()) != null) {
+            batch.add(record);
+            if (batch.size() == importBatchSize) {
+                rows += writeBatch(dataset, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            rows += writeBatch(dataset, batch);
+        }
+
+        LOGGER.log(Level.INFO, "Import {0} ({1}) : {2} lignes en {3}ms",
+                   new Object[]{dataset.getName(), format.getExtension(), rows, System.currentTimeMillis() - start});
+        return rows;
+    }
+
+    private int writeBatch(TransferDataset dataset, List<Map<String, String>> batch) {
+        switch (dataset) {
+            case PROPOSALS -> {
+                List<ProposalHistory> proposals = new ArrayList<>(batch.size());
+                for (Map<String, String> record : batch) {
+                    ProposalHistory proposal = new ProposalHistory(
+                        Long.parseLong(required(record, "user_id")),
+                        required(record, "proposal_type"),
+                        required(record, "activity_type"),
+                        required(record, "title"));
+                    proposal.setTimestamp(LocalDateTime.parse(required(record, "timestamp")));
+                    proposal.setAccepted(Boolean.parseBoolean(record.get("accepted")));
+                    String completionTime = record.get("completion_time");
+                    if (completionTime != null && !completionTime.isEmpty()) {
+                        proposal.setCompletionTime(LocalDateTime.parse(completionTime));
+                    }
+                    proposals.add(proposal);
+                }
+                return proposalRepository.saveProposals(proposals);
+            }
+            case PREFERENCES -> {
+                Map<Long, Map<String, String>> byUser = new LinkedHashMap<>();
+                for (Map<String, String> record : batch) {
+                    byUser.computeIfAbsent(Long.parseLong(required(record, "user_id")), id -> new LinkedHashMap<>())
+                        .put(required(record, "preference_key"), required(record, "preference_value"));
+                }
+                byUser.forEach(userPreferenceRepository::setUserPreferences);
+                return batch.size();
+            }
+            case ACTIVITIES -> {
+                List<ActivityDTO> activities = new ArrayList<>(batch.size());
+                for (Map<String, String> record : batch) {
+                    String confidence = record.get("confidence");
+                    activities.add(new ActivityDTO(
+                        required(record, "activity_type"),
+                        Long.parseLong(required(record, "timestamp")),
+                        confidence != null && !confidence.isEmpty() ? Double.parseDouble(confidence) : 0.0,
+                        record.get("source"),
+                        record.get("additional_info")));
+                }
+                return activityRepository.saveActivities(activities);
+            }
+            default -> throw new IllegalArgumentException("Jeu de données non pris en charge : " + dataset);
+        }
+    }
+
+    private static String required(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Colonne manquante dans la ligne importée : " + column);
+        }
+        return value;
+    }
+
+    /**
+     * Écriture d'une ligne dans le format de sortie.
+     */
+    private interface RowWriter {
+
+        void write(Object[] values);
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = new JsonFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] values) {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < values.length; i++) {
+                    Object value = values[i];
+                    String column = columns.get(i);
+                    if (value == null) {
+                        generator.writeNullField(column);
+                    } else if (value instanceof Long l) {
+                        generator.writeNumberField(column, l);
+                    } else if (value instanceof Double d) {
+                        generator.writeNumberField(column, d);
+                    } else if (value instanceof Boolean b) {
+                        generator.writeBooleanField(column, b);
+                    } else {
+                        generator.writeStringField(column, value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            write(columns.toArray());
+        }
+
+        @Override
+        public void write(Object[] values) {
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    if (values[i] != null) {
+                        writer.write(escape(values[i].toString()));
+                    }
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String escape(String value) {
+            // Une chaîne vide est écrite entre guillemets pour la distinguer de null
+            if (!value.isEmpty() && value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Lecture d'un enregistrement (colonne -> valeur textuelle) depuis le flux d'entrée.
+     */
+    private interface RecordReader {
+
+        /**
+         * @return L'enregistrement suivant, ou null en fin de flux
+         */
+        Map<String, String> next() throws IOException;
+    }
+
+    private final class NdjsonRecordReader implements RecordReader {
+
+        private final BufferedReader reader;
+
+        NdjsonRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                Map<String, String> record = new HashMap<>();
+                node.fields().forEachRemaining(field ->
+                    record.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+                return record;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lecteur CSV (RFC 4180) : champs entre guillemets, guillemets doublés et retours
+     * à la ligne dans les champs. Un champ vide sans guillemets est lu comme null,
+     * un champ vide entre guillemets ({@code ""}) comme une chaîne vide.
+     */
+    private static final class CsvRecordReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private List<String> header;
+
+        CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = readFields();
+                if (header == null) {
+                    return null;
+                }
+            }
+            List<String> fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                record.put(header.get(i), fields.get(i));
+            }
+            return record;
+        }
+
+        private List<String> readFields() throws IOException {
+            int c = reader.read();
+            while (c == '\r' || c == '\n') {
+                c = reader.read();
+            }
+            if (c < 0) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    fields.add(fieldValue(field, wasQuoted));
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\r' || c == '\n') {
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(fieldValue(field, wasQuoted));
+            return fields;
+        }
+
+        private static String fieldValue(StringBuilder field, boolean wasQuoted) {
+            return field.length() == 0 && !wasQuoted ? null : field.toString();
+        }
+    }
+}
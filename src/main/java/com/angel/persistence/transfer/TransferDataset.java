@@ -0,0 +1,49 @@
+package com.angel.persistence.transfer;
+
+import java.util.List;
+
+/**
+ * Jeux de données exportables et importables, avec leurs colonnes dans l'ordre
+ * d'écriture.
+ */
+public enum TransferDataset {
+
+    PROPOSALS("proposals", List.of("id", "user_id", "proposal_type", "timestamp", "activity_type",
+                                   "title", "accepted", "completion_time")),
+
+    PREFERENCES("preferences", List.of("user_id", "preference_key", "preference_value")),
+
+    ACTIVITIES("activities", List.of("activity_type", "timestamp", "confidence", "source", "additional_info"));
+
+    private final String name;
+    private final List<String> columns;
+
+    TransferDataset(String name, List<String> columns) {
+        this.name = name;
+        this.columns = columns;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrouve un jeu de données à partir de son nom, sans tenir compte de la casse.
+     *
+     * @param name Nom du jeu de données (proposals, preferences ou activities)
+     * @return Le jeu de données correspondant
+     * @throws IllegalArgumentException si le nom est inconnu
+     */
+    public static TransferDataset fromName(String name) {
+        for (TransferDataset dataset : values()) {
+            if (dataset.name.equalsIgnoreCase(name)) {
+                return dataset;
+            }
+        }
+        throw new IllegalArgumentException("Jeu de données inconnu : " + name);
+    }
+}
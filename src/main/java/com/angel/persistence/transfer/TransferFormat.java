@@ -0,0 +1,45 @@
+package com.angel.persistence.transfer;
+
+/**
+ * Formats d'export et d'import de l'historique.
+ */
+public enum TransferFormat {
+
+    /** Un objet JSON par ligne. */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** Valeurs séparées par des virgules, avec une ligne d'en-tête (RFC 4180). */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TransferFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Retrouve un format à partir de son nom, sans tenir compte de la casse.
+     *
+     * @param name Nom du format (ndjson ou csv)
+     * @return Le format correspondant
+     * @throws IllegalArgumentException si le format est inconnu
+     */
+    public static TransferFormat fromName(String name) {
+        for (TransferFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Format de transfert inconnu : " + name);
+    }
+}
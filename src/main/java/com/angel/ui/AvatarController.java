@@ -4,7 +4,7 @@ import com.angel.avatar.AvatarConfig;
 import com.angel.avatar.AvatarManager;
 import com.angel.avatar.WebSocketService;
 import com.angel.config.ConfigManager;
-import com.angel.intelligence.proposals.Proposal;
+import com.angel.intelligence.proposals.PreparedProposal;
 import com.angel.util.LogUtil;
 import org.springframework.stereotype.Component;
 
@@ -115,15 +115,12 @@ public class AvatarController {
     /**
      * Affiche une proposition via l'avatar.
      * 
-     * @param proposal La proposition à afficher
+     * @param proposal La proposition préparée à afficher
      * @return CompletableFuture qui se termine quand la proposition est affichée
      */
-    public CompletableFuture<Void> displayProposal(Proposal proposal) {
+    public CompletableFuture<Void> displayProposal(PreparedProposal proposal) {
         try {
-            // Préparer la proposition
-            proposal.prepare(null, null, java.time.LocalDateTime.now());
-            
-            String content = proposal.getContent();
+            String content = proposal.content();
             String emotion = determineEmotionForProposal(proposal);
             
             LOGGER.log(Level.INFO, "Affichage proposition: {0}", content);
@@ -262,17 +259,17 @@ public class AvatarController {
     /**
      * Détermine l'émotion appropriée pour une proposition.
      */
-    private String determineEmotionForProposal(Proposal proposal) {
-        String proposalType = proposal.getClass().getSimpleName().toLowerCase();
+    private String determineEmotionForProposal(PreparedProposal proposal) {
+        String proposalType = proposal.proposalId();
         
         switch (proposalType) {
-            case "weatherproposal":
+            case "weather":
                 return "informative";
-            case "newsproposal":
+            case "news":
                 return "attentive";
-            case "storyproposal":
+            case "stories":
                 return "friendly";
-            case "reminderproposal":
+            case "reminders":
                 return "helpful";
             default:
                 return "neutral";